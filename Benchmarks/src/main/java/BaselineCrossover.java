@@ -0,0 +1,165 @@
+import java.util.*;
+
+public class BaselineCrossover {
+
+    /*
+    Crossover as Organism did it before genotypes were packed, lifted verbatim from the baseline together with the
+    Gene and Chromosome it ran on, so organism.crossover.map measures the path mating used to take
+    The four baseline genes only differed in their class, so one Gene stands in for all of them, and two casts javac
+    reports as redundant are left out
+     */
+
+    // Global mutation rate for every organism
+    public static final double mutation_rate = 0.05;
+
+    public static class Gene {
+
+        // Max range [-x,x] with which to generate random mutation amount
+        public final double mutation_amount = 0.07;
+        // The value is the theta term in the logistic gene equation
+        public double value;
+        // If this is true, this gene is dominant. Else, it is recessive
+        public boolean dominance;
+        // Give each gene a unique ID
+        public UUID id;
+
+        public Gene(double init_value, boolean dominance) {
+            /*
+            @param  init_value - the initial unmutated value of the gene
+            @param  dominance - the initial dominance of the gene (dominant or recessive based on boolean)
+             */
+            this.value = init_value;
+            this.dominance = dominance;
+            this.id = UUID.randomUUID();
+        }
+
+        public void mutation() {
+            /*
+            Mutation function for the gene, which will add a random displacement from the original value below or
+            above it. Will change the field variable value with new value
+             */
+
+            // generation new Random object
+            Random r = new Random();
+
+            // keep generating new values while the new values are out of the range of the value for the function
+            double new_value = 0;
+            do {
+                double degree = -mutation_amount + (mutation_amount - (-mutation_amount)) * r.nextDouble();
+                new_value = this.value + degree;
+            } while(new_value < 0.1 || new_value > 1.0);
+
+            this.value = new_value;
+        }
+
+    }
+
+    public static class Chromosome {
+
+        // List of size two storing each allele in the Chromosome
+        private List<Gene> pair;
+
+        public Chromosome(Gene allele_a, Gene allele_b) {
+            /*
+            Constructor when first Chromosomes are made, with each allele being added to the global pair
+             */
+
+            this.pair = new ArrayList<Gene>();
+            this.pair.add(0, allele_a);
+            this.pair.add(1, allele_b);
+        }
+
+        public Chromosome(List<Gene> pair) {
+            /*
+            When mating occurs new offspring will use this constructor (pairs will already be made)
+             */
+
+            this.pair = pair;
+        }
+
+        public List<Gene> getPair() { return this.pair; }
+
+        public void mutate() {
+            /*
+            Call to mutate a random allele in the chromosome
+             */
+
+            int rand_allele = (int)(Math.random() * 1);
+            this.pair.get(rand_allele).mutation();
+        }
+
+    }
+
+    public static Map<String, Chromosome> crossover(Map<String, Chromosome> ma_genotype,
+                                                    Map<String, Chromosome> pa_genotype) {
+        /*
+        Mendelian crossover of genotype
+        Parent genotypes extracted for chromosome
+        Punnett Square makes all possible permutations of combinations
+        Random combination will be selected for assignment into the offspring genotype
+        Random mutation may occur on genes before they are assigned to the genotype, mutation_rate determines
+        likelihood
+
+        @param  ma_genotype - maternal genotype as a Map
+        @param  pa_genotype - paternal genotype as a Map
+        @return return genotype to assign to offspring
+         */
+
+        Map<String, Chromosome> new_genotype = new HashMap<String, Chromosome>();
+
+        // iterate through each genotype concurrently
+        Iterator<Map.Entry<String, Chromosome>> ma_iter = ma_genotype.entrySet().iterator();
+        Iterator<Map.Entry<String, Chromosome>> pa_iter = pa_genotype.entrySet().iterator();
+
+        while ( ma_iter.hasNext() || pa_iter.hasNext() ) {
+
+            // get next gene in both genoypyes
+            Map.Entry<String, Chromosome> ma_gene = ma_iter.next();
+            Map.Entry<String, Chromosome> pa_gene = pa_iter.next();
+
+            // extract Chromosome for crossover
+            Chromosome ma_chromosome = ma_gene.getValue();
+            Chromosome pa_chromosome = pa_gene.getValue();
+
+            // List of all Gene crosses - make long list first and extract pairs after
+            List<Gene> crosses = new ArrayList<Gene>();
+
+            // Loops will grab each new combination pair from a each genotype and pair them up
+            for (int i = 0; i < 2; i++) {
+                for (int j = 0; j < 2; j++) {
+                    crosses.add(i, ma_chromosome.getPair().get(i));
+                    crosses.add(j, pa_chromosome.getPair().get(j));
+                }
+            }
+
+            // get all cross combinations by dividing up lists
+            Chromosome cross_a = new Chromosome(crosses.subList(0, 2));
+            Chromosome cross_b = new Chromosome(crosses.subList(2, 4));
+            Chromosome cross_c = new Chromosome(crosses.subList(4, 6));
+            Chromosome cross_d = new Chromosome(crosses.subList(6, 8));
+
+            List<Chromosome> punnet = new ArrayList<Chromosome>();
+
+            punnet.add(0, cross_a);
+            punnet.add(1, cross_b);
+            punnet.add(2, cross_c);
+            punnet.add(3, cross_d);
+
+            int random_num = (int) (Math.random() * 3);
+
+            // select a random punnett combination as the new chromosome for thes the offspring for that gene
+            Chromosome new_chromosome = punnet.get(random_num);
+
+            // MUTATION, allow the new chromosome to undergo a random mutation on any one of the alleles
+            if (Math.random() > mutation_rate) {
+                new_chromosome.mutate();
+            }
+
+            // put new combination (for this gene) into the new genotype, iterate to next one to complete
+            new_genotype.put(ma_gene.getKey(), new_chromosome);
+        }
+
+        return new_genotype;
+    }
+
+}
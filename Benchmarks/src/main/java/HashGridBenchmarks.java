@@ -0,0 +1,132 @@
+import benchmarks.Benchmark;
+import org.gicentre.utils.geom.HashGrid;
+import org.gicentre.utils.geom.Locatable;
+import org.openjdk.jmh.infra.Blackhole;
+import processing.core.PVector;
+
+import java.util.*;
+
+public class HashGridBenchmarks {
+
+    public static List<Benchmark> all() {
+        /*
+        The operations of SpatialBenchmarks on gicentre's HashGrid, the index zones used before SpatialHash
+        Needs the gicentre utils library on the class path (lib/gicentreUtils.jar, see pom.xml). Kept apart from
+        SpatialBenchmarks because loading this class fails without it, which only skips this suite (see Suites)
+         */
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+
+        // every organism takes one step along its own movement PVector, as Organism.move() did, then the grid
+        // relinks the ones that crossed into another cell
+        benchmarks.add(new Benchmark("spatial.hashgrid.update") {
+            private Located[] organisms;
+            private HashGrid<Located> grid;
+            public void setup(int population) {
+                this.organisms = located(ZoneFixtures.zone(population).getPopulation());
+                this.grid = hashGrid(this.organisms);
+                this.items = this.organisms.length;
+            }
+            public void run(Blackhole blackhole) {
+                for (Located located : this.organisms) {
+                    located.move();
+                }
+                this.grid.updateAll();
+                blackhole.consume(this.grid.size());
+            }
+        });
+
+        // HashGrid returns the contents of the surrounding cells, the caller filters them by distance
+        benchmarks.add(new Benchmark("spatial.hashgrid.query") {
+            private HashGrid<Located> grid;
+            private float[] points;
+            public void setup(int population) {
+                this.grid = hashGrid(located(ZoneFixtures.zone(population).getPopulation()));
+                this.points = SpatialBenchmarks.points();
+                this.items = SpatialBenchmarks.QUERIES;
+            }
+            public void run(Blackhole blackhole) {
+                float radius = SpatialBenchmarks.QUERY_RADIUS;
+                long found = 0;
+                for (int i = 0; i < this.points.length; i += 2) {
+                    for (Located located : this.grid.get(this.points[i], this.points[i + 1])) {
+                        PVector location = located.getLocation();
+                        float distance_x = location.x - this.points[i];
+                        float distance_y = location.y - this.points[i + 1];
+                        if (distance_x * distance_x + distance_y * distance_y <= radius * radius) {
+                            found++;
+                        }
+                    }
+                }
+                blackhole.consume(found);
+            }
+        });
+
+        return benchmarks;
+    }
+
+    private static Located[] located(Population population) {
+        /*
+        @return every organism of the population as the HashGrid sees it, starting where the population has it
+         */
+
+        Located[] organisms = new Located[population.size()];
+        for (int slot = 0; slot < organisms.length; slot++) {
+            organisms[slot] = new Located(population, slot);
+        }
+
+        return organisms;
+    }
+
+    private static HashGrid<Located> hashGrid(Located[] organisms) {
+        /*
+        @return grid of the organisms, with the cells of the zone's own index (see SpatialBenchmarks.CELL_SIZE)
+         */
+
+        HashGrid<Located> grid = new HashGrid<>(ZoneFixtures.WIDTH, ZoneFixtures.HEIGHT, SpatialBenchmarks.CELL_SIZE);
+        for (Located located : organisms) {
+            grid.add(located);
+        }
+
+        return grid;
+    }
+
+    private static class Located implements Locatable {
+
+        /*
+        An organism as the HashGrid sees it, holding its location and movement in PVectors as Organism used to
+        getLocation() hands out the stored location, so a lookup allocates nothing, as it did not before
+         */
+
+        private final PVector location, movement;
+
+        Located(Population population, int slot) {
+            this.location = new PVector(population.x[slot], population.y[slot]);
+            this.movement = new PVector(population.dx[slot], population.dy[slot]);
+        }
+
+        void move() {
+            /*
+            One step along the movement vector, reversing it at the zone bounds, as Population.move does
+             */
+
+            float new_x = this.location.x + this.movement.x;
+            float new_y = this.location.y + this.movement.y;
+
+            if (new_x < 0 || new_x > ZoneFixtures.WIDTH) {
+                this.movement.x = -this.movement.x;
+            }
+            if (new_y < 0 || new_y > ZoneFixtures.HEIGHT) {
+                this.movement.y = -this.movement.y;
+            }
+
+            this.location.add(this.movement);
+        }
+
+        @Override
+        public PVector getLocation() {
+            return this.location;
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelCheck {
+
+    // Organisms in the zone, ticks and worker threads, overridden by the arguments
+    // The default zone is large enough for both the partitioned live phase (Zone.PARTITIONED_LIVE_THRESHOLD) and the
+    // partitioned movement phase (two Zone.MOVE_PARTITION_SIZE partitions)
+    private static final int DEFAULT_SIZE = 40000;
+    private static final long DEFAULT_TICKS = 20;
+    private static final int DEFAULT_THREADS = 4;
+
+    public static void main(String[] args) {
+        /*
+        Headless check that a zone steps the same with and without a pool: builds two copies of the same seeded zone
+        (see ZoneFixtures.zone), steps one sequentially and one with its large phases partitioned across a pool,
+        and fails (exit status 1) on the first tick after which their populations, species counts, allele reference
+        counts, statistics or abiotic factors differ
+        Usage: java ParallelCheck [size] [ticks] [threads]
+
+        @param  args - optional organisms in the zone (default 40000), ticks (default 20) and threads (default 4)
+         */
+
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_TICKS;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_THREADS;
+
+        Zone sequential = ZoneFixtures.zone(size);
+        Zone parallel = ZoneFixtures.zone(size);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        parallel.setPool(pool);
+
+        String difference = null;
+        long tick = 0;
+        while (tick < ticks && difference == null) {
+            step(sequential);
+            step(parallel);
+            tick++;
+            difference = difference(sequential, parallel);
+        }
+        pool.shutdown();
+
+        System.out.println("SIZE: " + size + " TICKS: " + tick + " THREADS: " + threads
+                + " POPULATION: " + sequential.getTotalPopulation() + " / " + parallel.getTotalPopulation()
+                + (difference != null ? " DIFFERS: " + difference : ""));
+
+        if (difference != null) {
+            System.exit(1);
+        }
+    }
+
+    private static void step(Zone zone) {
+        /*
+        One tick of a single zone, the phases in the order SimulationEngine.tick performs them
+         */
+
+        zone.movement();
+        zone.live();
+        zone.predation();
+        zone.selection();
+        zone.mating();
+        zone.addCo2();
+        zone.applyBirths();
+        zone.compact();
+    }
+
+    private static String difference(Zone a, Zone b) {
+        /*
+        @return what first differs between two zones, null if nothing does
+         */
+
+        for (AbioticFactor factor : AbioticFactor.values()) {
+            if (Double.doubleToLongBits(a.getAbiotic(factor)) != Double.doubleToLongBits(b.getAbiotic(factor))) {
+                return "abiotic " + factor;
+            }
+        }
+
+        Population pa = a.getPopulation();
+        Population pb = b.getPopulation();
+        if (pa.size() != pb.size() || pa.end() != pb.end()) {
+            return "population size";
+        }
+        for (Species species : Species.values()) {
+            if (pa.size(species) != pb.size(species)) {
+                return "population of " + species;
+            }
+        }
+        // organisms get fresh ids, everything else of every slot must match
+        for (int slot = 0; slot < pa.end(); slot++) {
+            if (pa.isTombstone(slot) != pb.isTombstone(slot) || pa.species[slot] != pb.species[slot]
+                    || pa.genotype[slot] != pb.genotype[slot]
+                    || Float.floatToIntBits(pa.x[slot]) != Float.floatToIntBits(pb.x[slot])
+                    || Float.floatToIntBits(pa.y[slot]) != Float.floatToIntBits(pb.y[slot])
+                    || Float.floatToIntBits(pa.dx[slot]) != Float.floatToIntBits(pb.dx[slot])
+                    || Float.floatToIntBits(pa.dy[slot]) != Float.floatToIntBits(pb.dy[slot])
+                    || Double.doubleToLongBits(pa.energy[slot]) != Double.doubleToLongBits(pb.energy[slot])) {
+                return "organism in slot " + slot;
+            }
+        }
+
+        // allele ids come from one allocator shared by both zones, everything else of every allele must match
+        AlleleRegistry ra = a.getAlleles();
+        AlleleRegistry rb = b.getAlleles();
+        for (GeneType type : GeneType.values()) {
+            if (ra.size(type) != rb.size(type)) {
+                return "allele table size of " + type.getName();
+            }
+            for (int index = 0; index < ra.size(type); index++) {
+                if (ra.isLive(type, index) != rb.isLive(type, index) || ra.refs(type, index) != rb.refs(type, index)
+                        || ra.dominant(type, index) != rb.dominant(type, index)
+                        || Double.doubleToLongBits(ra.value(type, index))
+                            != Double.doubleToLongBits(rb.value(type, index))) {
+                    return "allele " + index + " of " + type.getName();
+                }
+            }
+        }
+
+        ZoneStatistics sa = a.getStatistics();
+        ZoneStatistics sb = b.getStatistics();
+        for (Species species : Species.values()) {
+            if (sa.getSpeciesTotal(species) != sb.getSpeciesTotal(species)) {
+                return "species total of " + species;
+            }
+        }
+        for (GeneType type : GeneType.values()) {
+            for (int zygosity = 0; zygosity < ZoneStatistics.ZYGOSITY_NAMES.length; zygosity++) {
+                if (sa.getZygosityCount(type, zygosity) != sb.getZygosityCount(type, zygosity)) {
+                    return ZoneStatistics.ZYGOSITY_NAMES[zygosity] + " count of " + type.getName();
+                }
+            }
+            if (sa.getValueCount(type) != sb.getValueCount(type)
+                    || Double.doubleToLongBits(sa.getMeanValue(type)) != Double.doubleToLongBits(sb.getMeanValue(type))
+                    || Double.doubleToLongBits(sa.getValueVariance(type))
+                        != Double.doubleToLongBits(sb.getValueVariance(type))) {
+                return "allele value statistics of " + type.getName();
+            }
+        }
+
+        return null;
+    }
+
+}
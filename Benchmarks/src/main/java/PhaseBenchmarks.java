@@ -0,0 +1,216 @@
+import benchmarks.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class PhaseBenchmarks {
+
+    public static List<Benchmark> all() {
+        /*
+        Every per-tick phase and the genetic operations they are built on
+        Population is always the number of organisms in the zone being benchmarked
+         */
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+
+        // putting the zone back to its starting population alone, the part of every phase below that resets its zone
+        benchmarks.add(new Benchmark("zone.reset") {
+            private ZoneTemplate template;
+            public void setup(int population) { this.template = new ZoneTemplate(population); }
+            public void run(Blackhole blackhole) { this.template.reset(); }
+        });
+
+        benchmarks.add(new Benchmark("zone.live") {
+            private ZoneTemplate template;
+            public void setup(int population) { this.template = new ZoneTemplate(population); }
+            public void run(Blackhole blackhole) {
+                this.template.reset();
+                this.template.getZone().live();
+            }
+        });
+
+        // the same phase with its partitions spread over every core, only differs from zone.live for large zones
+        benchmarks.add(new Benchmark("zone.live.parallel") {
+            private ZoneTemplate template;
+            public void setup(int population) {
+                this.template = new ZoneTemplate(population);
+                this.template.getZone().setPool(ForkJoinPool.commonPool());
+            }
+            public void run(Blackhole blackhole) {
+                this.template.reset();
+                this.template.getZone().live();
+            }
+        });
+
+        // movement never changes who is in the zone, every run moves the organisms on from where the last left them
+        benchmarks.add(new Benchmark("zone.movement") {
+            private Zone zone;
+            public void setup(int population) {
+                this.zone = ZoneFixtures.zone(population);
+                this.items = population;
+            }
+            public void run(Blackhole blackhole) { this.zone.movement(); }
+        });
+
+        // the same phase with its partitions spread over every core, only differs from zone.movement for large zones
+        benchmarks.add(new Benchmark("zone.movement.parallel") {
+            private Zone zone;
+            public void setup(int population) {
+                this.zone = ZoneFixtures.zone(population);
+                this.zone.setPool(ForkJoinPool.commonPool());
+                this.items = population;
+            }
+            public void run(Blackhole blackhole) { this.zone.movement(); }
+        });
+
+        benchmarks.add(new Benchmark("zone.predation") {
+            private ZoneTemplate template;
+            public void setup(int population) { this.template = new ZoneTemplate(population); }
+            public void run(Blackhole blackhole) {
+                this.template.reset();
+                this.template.getZone().predation();
+            }
+        });
+
+        benchmarks.add(new Benchmark("zone.selection") {
+            private ZoneTemplate template;
+            public void setup(int population) { this.template = new ZoneTemplate(population); }
+            public void run(Blackhole blackhole) {
+                this.template.reset();
+                this.template.getZone().selection();
+            }
+        });
+
+        // mating stages the offspring, they join the zone as they would at the end of the tick
+        benchmarks.add(new Benchmark("zone.mating") {
+            private ZoneTemplate template;
+            public void setup(int population) { this.template = new ZoneTemplate(population); }
+            public void run(Blackhole blackhole) {
+                this.template.reset();
+                this.template.getZone().mating();
+                this.template.getZone().applyBirths();
+            }
+        });
+
+        // one crossover for every pair of neighbouring organisms of the same species, on the packed genotypes as mating does
+        benchmarks.add(new Benchmark("organism.crossover") {
+            private List<Organism[]> pairs;
+            private SplittableRandom random = new SplittableRandom(42);
+            public void setup(int population) {
+                this.pairs = pairs(population);
+                this.items = this.pairs.size();
+            }
+            public void run(Blackhole blackhole) {
+                long genotypes = 0;
+                for (Organism[] pair : this.pairs) {
+                    genotypes ^= pair[0].crossover(pair[0].genotype, pair[1].genotype, this.random);
+                }
+                blackhole.consume(genotypes);
+            }
+        });
+
+        // the same crossovers on genotype Maps through the baseline's Punnett square (see BaselineCrossover), the path
+        // mating took before the packed genotype, kept as the baseline organism.crossover is compared against
+        benchmarks.add(new Benchmark("organism.crossover.map") {
+            private List<List<Map<String, BaselineCrossover.Chromosome>>> pairs;
+            public void setup(int population) {
+                this.pairs = new ArrayList<>();
+                for (Organism[] pair : pairs(population)) {
+                    this.pairs.add(Arrays.asList(baselineGenotype(pair[0]), baselineGenotype(pair[1])));
+                }
+                this.items = this.pairs.size();
+            }
+            public void run(Blackhole blackhole) {
+                int genes = 0;
+                for (List<Map<String, BaselineCrossover.Chromosome>> pair : this.pairs) {
+                    genes += BaselineCrossover.crossover(pair.get(0), pair.get(1)).size();
+                }
+                blackhole.consume(genes);
+            }
+        });
+
+        // fitness of every dominant allele in the population against a fixed mapped abiotic level
+        benchmarks.add(new Benchmark("gene.fitness") {
+            private Gene[] genes;
+            public void setup(int population) {
+                List<Organism> organisms = ZoneFixtures.population(population, new AlleleRegistry());
+                this.genes = new Gene[organisms.size()];
+                for (int i = 0; i < this.genes.length; i++) {
+                    Chromosome chromosome = organisms.get(i).getGenotype().values().iterator().next();
+                    this.genes[i] = chromosome.getDominant();
+                }
+            }
+            public void run(Blackhole blackhole) {
+                double total = 0;
+                for (Gene gene : this.genes) {
+                    total += gene.fitness(2.5);
+                }
+                blackhole.consume(total);
+            }
+        });
+
+        // survival mask of every species of a zone in one pass per species, through the shared FitnessKernel
+        benchmarks.add(new Benchmark("fitness.kernel.survival") {
+            private Population population;
+            private boolean[] alive;
+            public void setup(int population) {
+                this.population = ZoneFixtures.zone(population).getPopulation();
+                this.alive = new boolean[population];
+                this.items = this.population.size();
+            }
+            public void run(Blackhole blackhole) {
+                int survivors = 0;
+                for (Species species : Species.values()) {
+                    survivors += FitnessKernel.get().survival(this.population.theta[0], this.population.theta[1],
+                            this.population.slots(species), 0, this.population.size(species), 2.5, -1.5,
+                            species.getLambda(), this.alive);
+                }
+                blackhole.consume(survivors);
+            }
+        });
+
+        return benchmarks;
+    }
+
+    private static Map<String, BaselineCrossover.Chromosome> baselineGenotype(Organism organism) {
+        /*
+        The organism's genotype in the baseline's shapes, every allele a Gene of its own as the founders had
+
+        @param  organism - organism whose genotype is copied
+         */
+
+        Map<String, BaselineCrossover.Chromosome> genotype = new HashMap<>();
+        for (Map.Entry<String, Chromosome> entry : organism.getGenotype().entrySet()) {
+            Gene allele_a = entry.getValue().getAllele_a();
+            Gene allele_b = entry.getValue().getAllele_b();
+            genotype.put(entry.getKey(), new BaselineCrossover.Chromosome(
+                    new BaselineCrossover.Gene(allele_a.getValue(), allele_a.getDominance()),
+                    new BaselineCrossover.Gene(allele_b.getValue(), allele_b.getDominance())));
+        }
+
+        return genotype;
+    }
+
+    private static List<Organism[]> pairs(int population) {
+        /*
+        Pairs up neighbouring organisms of the same species, mother first
+
+        @param  population - number of organisms to pair up
+         */
+
+        List<Organism[]> pairs = new ArrayList<>();
+        Map<Class<?>, Organism> waiting = new HashMap<>();
+        for (Organism organism : ZoneFixtures.population(population, new AlleleRegistry())) {
+            Organism mother = waiting.remove(organism.getClass());
+            if (mother == null) {
+                waiting.put(organism.getClass(), organism);
+            } else {
+                pairs.add(new Organism[] { mother, organism });
+            }
+        }
+
+        return pairs;
+    }
+
+}
@@ -0,0 +1,46 @@
+public class PopulationCheck {
+
+    // Ticks every run lasts, runs (seeds 1, 2, ...) and the most organisms the Biome may hold, overridden by the arguments
+    private static final long DEFAULT_TICKS = 5000;
+    private static final int DEFAULT_SEEDS = 5;
+    private static final int DEFAULT_BOUND = 5000;
+
+    public static void main(String[] args) {
+        /*
+        Headless long run check that the model has an equilibrium: runs the marine Biome on several seeds and fails
+        (exit status 1) as soon as the population of any run grows past the bound. Seeded runs settle at a few hundred
+        organisms; a change that lets a species escape selection (e.g. alleles no depletion can select against) instead
+        grows past the bound within a couple of hundred ticks
+        Usage: java PopulationCheck [ticks] [seeds] [bound]
+
+        @param  args - optional ticks per run (default 5000), number of seeds (default 5) and bound (default 5000)
+         */
+
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_TICKS;
+        int seeds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SEEDS;
+        int bound = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BOUND;
+
+        boolean bounded = true;
+        for (long seed = 1; seed <= seeds; seed++) {
+            // the Biome the sketch and the headless engine run
+            SimulationEngine engine = new SimulationEngine(BiomeFactory.createMarineBiome(ZoneFixtures.WIDTH, BiomeFactory.ZONE_HEIGHT, seed));
+            engine.getBiome().setParallelism(1);
+
+            int peak = 0;
+            while (engine.getTicks() < ticks && peak <= bound) {
+                engine.tick();
+                peak = Math.max(peak, engine.getBiome().getTotalPopulation());
+            }
+
+            System.out.println("SEED: " + seed + " TICKS: " + engine.getTicks() + " PEAK POPULATION: " + peak
+                    + " FINAL POPULATION: " + engine.getBiome().getTotalPopulation()
+                    + (peak > bound ? " EXCEEDED " + bound : ""));
+            bounded &= peak <= bound;
+        }
+
+        if (!bounded) {
+            System.exit(1);
+        }
+    }
+
+}
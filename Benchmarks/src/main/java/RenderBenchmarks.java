@@ -0,0 +1,137 @@
+import benchmarks.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+import processing.awt.PGraphicsJava2D;
+import processing.core.*;
+
+import java.awt.image.BufferedImage;
+import java.util.*;
+
+public class RenderBenchmarks {
+
+    // Colour (ARGB, as the Ecosystem sketch defines them) and diameter of each species, by Species ordinal
+    private static final int[] COLOURS = { 0xFF56CE3C, 0xFFB4251C, 0xFF5F090E };
+    private static final int[] SIZES = { ZoneFixtures.RADIUS, ZoneFixtures.RADIUS + 5, ZoneFixtures.RADIUS + 8 };
+
+    // Zoom scale of the zoomed out frames, far enough below OrganismRenderer.DENSITY_ZOOM to draw densities
+    private static final float ZOOMED_OUT = OrganismRenderer.DENSITY_ZOOM / 2;
+
+    public static List<Benchmark> all() {
+        /*
+        One frame of organisms drawn into an offscreen Java2D buffer the size of a zone, every organism visible
+        ops/s is frames/s
+         */
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+
+        // the renderer the sketch uses, a POINTS batch per species
+        benchmarks.add(new Benchmark("render.organisms.batched") {
+            private PGraphics graphics;
+            private ZoneSnapshot snapshot;
+            private OrganismRenderer renderer = new OrganismRenderer(COLOURS, SIZES);
+            public void setup(int population) {
+                this.graphics = graphics();
+                this.snapshot = snapshot(population);
+                this.items = this.snapshot.size;
+            }
+            public void run(Blackhole blackhole) {
+                this.graphics.beginDraw();
+                this.graphics.background(0);
+                this.renderer.draw(this.graphics, this.snapshot, 0);
+                this.graphics.endDraw();
+                blackhole.consume(this.graphics.width);
+            }
+        });
+
+        // zoomed out past OrganismRenderer.DENSITY_ZOOM, a heatmap of the spatial index cells per species
+        benchmarks.add(new Benchmark("render.organisms.density") {
+            private PGraphics graphics;
+            private ZoneSnapshot snapshot;
+            private OrganismRenderer renderer = new OrganismRenderer(COLOURS, SIZES);
+            public void setup(int population) {
+                this.graphics = graphics();
+                this.snapshot = snapshot(population);
+                this.renderer.setView(ZOOMED_OUT, 0, 0, ZoneFixtures.WIDTH, ZoneFixtures.HEIGHT);
+                this.items = this.snapshot.size;
+            }
+            public void run(Blackhole blackhole) {
+                this.graphics.beginDraw();
+                this.graphics.background(0);
+                this.graphics.scale(ZOOMED_OUT);
+                this.renderer.draw(this.graphics, this.snapshot, 0);
+                this.graphics.endDraw();
+                blackhole.consume(this.graphics.width);
+            }
+        });
+
+        // the same zoomed out frame with the renderer never told about the zoom (no setView), so it keeps drawing every
+        // organism in its species' point batch rather than the density heatmap, what the heatmap saves
+        benchmarks.add(new Benchmark("render.organisms.batched.zoomed_out") {
+            private PGraphics graphics;
+            private ZoneSnapshot snapshot;
+            private OrganismRenderer renderer = new OrganismRenderer(COLOURS, SIZES);
+            public void setup(int population) {
+                this.graphics = graphics();
+                this.snapshot = snapshot(population);
+                this.items = this.snapshot.size;
+            }
+            public void run(Blackhole blackhole) {
+                this.graphics.beginDraw();
+                this.graphics.background(0);
+                this.graphics.scale(ZOOMED_OUT);
+                this.renderer.draw(this.graphics, this.snapshot, 0);
+                this.graphics.endDraw();
+                blackhole.consume(this.graphics.width);
+            }
+        });
+
+        // what the sketch did before, a fill and an ellipse per organism
+        benchmarks.add(new Benchmark("render.organisms.ellipses") {
+            private PGraphics graphics;
+            private ZoneSnapshot snapshot;
+            public void setup(int population) {
+                this.graphics = graphics();
+                this.snapshot = snapshot(population);
+                this.items = this.snapshot.size;
+            }
+            public void run(Blackhole blackhole) {
+                this.graphics.beginDraw();
+                this.graphics.background(0);
+                this.graphics.noStroke();
+                for (int i = 0; i < this.snapshot.size; i++) {
+                    int species = this.snapshot.species[i];
+                    this.graphics.fill(COLOURS[species]);
+                    this.graphics.ellipse(this.snapshot.x[i], this.snapshot.y[i], SIZES[species], SIZES[species]);
+                }
+                this.graphics.endDraw();
+                blackhole.consume(this.graphics.width);
+            }
+        });
+
+        return benchmarks;
+    }
+
+    private static PGraphics graphics() {
+        /*
+        Built directly rather than through PApplet.createGraphics(), which needs a running sketch (its g)
+        The image is handed over up front, since beginDraw() otherwise asks the screen for one, and there is no
+        screen when the benchmarks run headless
+
+        @return offscreen Java2D buffer the size of a zone, drawn with the sketch's smoothing
+         */
+
+        PGraphicsJava2D graphics = new PGraphicsJava2D();
+        graphics.setParent(new PApplet());
+        graphics.setPrimary(false);
+        graphics.setSize(ZoneFixtures.WIDTH, ZoneFixtures.HEIGHT);
+        graphics.smooth(3);
+        graphics.image = new BufferedImage(graphics.pixelWidth, graphics.pixelHeight, BufferedImage.TYPE_INT_ARGB);
+        return graphics;
+    }
+
+    private static ZoneSnapshot snapshot(int population) {
+        ZoneSnapshot snapshot = new ZoneSnapshot();
+        snapshot.capture(ZoneFixtures.zone(population));
+        return snapshot;
+    }
+
+}
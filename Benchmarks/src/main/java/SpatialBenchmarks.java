@@ -0,0 +1,72 @@
+import benchmarks.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+
+public class SpatialBenchmarks {
+
+    // Radius queries per run
+    static final int QUERIES = 1000;
+    // Side of the index cells, the one zones give theirs (see Zone), and HashGridBenchmarks gives HashGrid
+    static final float CELL_SIZE = ZoneFixtures.RADIUS + 1;
+    // Radius of every query, one cell, as HashGrid only reports the cells around a location
+    static final float QUERY_RADIUS = CELL_SIZE;
+
+    public static List<Benchmark> all() {
+        /*
+        The zone's spatial index (SpatialHash), one frame of movement and a batch of radius queries
+        HashGridBenchmarks measures the same operations on gicentre's HashGrid
+         */
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+
+        // every organism takes one step, then the index relinks the ones that crossed into another cell
+        benchmarks.add(new Benchmark("spatial.hash.update") {
+            private Zone zone;
+            public void setup(int population) {
+                this.zone = ZoneFixtures.zone(population);
+                this.items = this.zone.getTotalPopulation();
+            }
+            public void run(Blackhole blackhole) {
+                this.zone.getPopulation().move(0, this.zone.getPopulation().end());
+                blackhole.consume(this.zone.getSpatialHash().updateAll());
+            }
+        });
+
+        benchmarks.add(new Benchmark("spatial.hash.query") {
+            private Zone zone;
+            private float[] points;
+            private int[] result = new int[1 << 16];
+            public void setup(int population) {
+                this.zone = ZoneFixtures.zone(population);
+                this.points = points();
+                this.items = QUERIES;
+            }
+            public void run(Blackhole blackhole) {
+                long found = 0;
+                for (int i = 0; i < this.points.length; i += 2) {
+                    found += this.zone.getSpatialHash().query(this.points[i], this.points[i + 1], QUERY_RADIUS, this.result);
+                }
+                blackhole.consume(found);
+            }
+        });
+
+        return benchmarks;
+    }
+
+    static float[] points() {
+        /*
+        @return QUERIES random query centres within the zone, as x, y pairs
+         */
+
+        Random random = new Random(42);
+        float[] points = new float[QUERIES * 2];
+        for (int i = 0; i < points.length; i += 2) {
+            points[i] = random.nextFloat() * ZoneFixtures.WIDTH;
+            points[i + 1] = random.nextFloat() * ZoneFixtures.HEIGHT;
+        }
+
+        return points;
+    }
+
+}
@@ -0,0 +1,67 @@
+import java.util.*;
+
+public class ZoneFixtures {
+
+    // Zone dimensions used by the Ecosystem sketch
+    public static final int WIDTH = 1024;
+    public static final int HEIGHT = BiomeFactory.ZONE_HEIGHT;
+    public static final int RADIUS = 10;
+
+    // Share of the population given to each species, roughly the ratio of the initial Photic population
+    public static final double PHYTO_SHARE = 0.6;
+    public static final double ZOO_SHARE = 0.3;
+
+    public static List<Organism> population(int size, AlleleRegistry alleles) {
+        /*
+        Builds a mixed population of the given size with an even spread of hom_dom, het_dom and hom_rec chromosomes
+
+        @param  size - number of organisms to create
+        @param  alleles - registry the alleles are interned in
+        @return shuffled list of organisms
+         */
+
+        Chromosome[] plight = chromosomes(alleles, GeneType.PLIGHT, 0.8, 0.3);
+        Chromosome[] pco2 = chromosomes(alleles, GeneType.PCO2, 0.8, GeneType.DEPLETED_MIN_VALUE);
+        Chromosome[] ro2 = chromosomes(alleles, GeneType.RO2, 0.8, GeneType.DEPLETED_MIN_VALUE);
+        Chromosome[] rtemp = chromosomes(alleles, GeneType.RTEMP, 0.7, 0.2);
+
+        int phyto = (int) (size * PHYTO_SHARE);
+        int zoo = (int) (size * ZOO_SHARE);
+
+        List<Organism> organisms = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (i < phyto) {
+                organisms.add(new Phytoplankton(plight[i % 3], pco2[i % 3]));
+            } else if (i < phyto + zoo) {
+                organisms.add(new Zooplankton(ro2[i % 3], rtemp[i % 3]));
+            } else {
+                organisms.add(new Crustacean(ro2[i % 3], rtemp[i % 3]));
+            }
+        }
+
+        Collections.shuffle(organisms, new Random(42));
+        return organisms;
+    }
+
+    private static Chromosome[] chromosomes(AlleleRegistry alleles, GeneType type, double dominant, double recessive) {
+        /*
+        @return the hom_dom, het_dom and hom_rec chromosomes of one gene type
+         */
+
+        int dom = alleles.intern(type, dominant, true);
+        int rec = alleles.intern(type, recessive, false);
+
+        return new Chromosome[] { new Chromosome(alleles, type, dom, dom),
+                new Chromosome(alleles, type, dom, rec), new Chromosome(alleles, type, rec, rec) };
+    }
+
+    public static Zone zone(int size) {
+        /*
+        Builds a zone of the given size with the abiotic levels of the Photic zone, and a fixed seed
+         */
+
+        AlleleRegistry alleles = new AlleleRegistry();
+        return new Zone(population(size, alleles), alleles, 10.0, 40.0, 40.0, 5.5, WIDTH, HEIGHT, RADIUS, 0, new SplittableRandom(42));
+    }
+
+}
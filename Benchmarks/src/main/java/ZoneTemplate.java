@@ -0,0 +1,69 @@
+import java.util.*;
+
+public class ZoneTemplate {
+
+    /*
+    A zone built once (see ZoneFixtures.zone) that can be put back to its starting population in place
+    The phases that kill or add organisms change the zone they run on, so those benchmarks reset it before every
+    run, inside the measurement. reset() allocates nothing once the zone's columns have reached their size, so the
+    bytes per operation the GC profiler reports are the phase's own, and its time is measured on its own as
+    zone.reset, to be subtracted from the phases that use it.
+     */
+
+    private final Zone zone;
+    // The organisms the zone was built with, in slot order
+    private final List<Organism> organisms;
+    // Raw abiotic factors the zone was built with, by AbioticFactor ordinal
+    private final double[] abiotic_factors = new double[AbioticFactor.values().length];
+
+    public ZoneTemplate(int size) {
+        /*
+        @param  size - number of organisms in the zone
+         */
+
+        this.zone = ZoneFixtures.zone(size);
+        Population population = this.zone.getPopulation();
+        this.organisms = new ArrayList<>(population.size());
+        for (int slot = 0; slot < population.end(); slot++) {
+            this.organisms.add(population.organisms[slot]);
+        }
+
+        for (AbioticFactor factor : AbioticFactor.values()) {
+            this.abiotic_factors[factor.ordinal()] = this.zone.getAbiotic(factor);
+        }
+
+        // the template holds every founder allele itself, so none is reclaimed while its holders are dead
+        AlleleRegistry alleles = this.zone.getAlleles();
+        for (Organism organism : this.organisms) {
+            alleles.acquire(organism.getSpecies(), organism.genotype);
+        }
+    }
+
+    public Zone getZone() {
+        return this.zone;
+    }
+
+    public void reset() {
+        /*
+        Removes everybody in the zone (offspring included), then adds the starting organisms back in their order
+        and restores the abiotic factors. Organisms get fresh ids and random locations, as when the zone was built
+         */
+
+        Population population = this.zone.getPopulation();
+        for (int slot = 0; slot < population.end(); slot++) {
+            if (!population.isTombstone(slot)) {
+                this.zone.removeOrganism(population.organisms[slot]);
+            }
+        }
+        this.zone.compact();
+
+        for (int i = 0; i < this.organisms.size(); i++) {
+            this.zone.addOrganism(this.organisms.get(i));
+        }
+
+        for (AbioticFactor factor : AbioticFactor.values()) {
+            this.zone.adjustAbiotic(factor, this.abiotic_factors[factor.ordinal()] - this.zone.getAbiotic(factor));
+        }
+    }
+
+}
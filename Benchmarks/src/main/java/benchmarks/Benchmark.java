@@ -0,0 +1,31 @@
+package benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+public abstract class Benchmark {
+
+    // Name the benchmark is reported (and selected, see Suites) under
+    private final String name;
+    // Items (e.g. offspring) produced by one run(), reported as items/s when set by setup()
+    protected long items = 0;
+
+    public Benchmark(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getItems() {
+        return this.items;
+    }
+
+    // Builds the state of a trial with the given number of organisms per zone, once per trial and never timed
+    public abstract void setup(int population);
+
+    // The measured operation, run over and over on the state setup() built, results go to the blackhole so the JIT
+    // keeps the work. An operation that changes that state puts it back itself first (see ZoneTemplate)
+    public abstract void run(Blackhole blackhole);
+
+}
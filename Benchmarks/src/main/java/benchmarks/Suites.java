@@ -0,0 +1,95 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Suites {
+
+    /*
+    JMH entry point of every benchmark the suites define, picked with -p benchmark=<name>[,<name>...]
+    JMH does not generate code for classes in the default package, and a named package cannot refer to the
+    default one, where the simulation lives. So the suites stay next to the simulation and are looked up by name
+    here, once per trial. Every benchmark and population is a trial of its own, run in a fresh JVM (fork), so no
+    benchmark shares a JIT profile with another.
+     */
+
+    // Suites in the default package, searched in this order, each with a static all() returning its Benchmarks
+    private static final String[] SUITES = { "PhaseBenchmarks", "SpatialBenchmarks", "RenderBenchmarks",
+            "HashGridBenchmarks" };
+
+    @Param({ "zone.reset", "zone.live", "zone.live.parallel", "zone.movement", "zone.movement.parallel",
+            "zone.predation", "zone.selection", "zone.mating", "organism.crossover", "organism.crossover.map",
+            "gene.fitness", "fitness.kernel.survival", "spatial.hash.update", "spatial.hash.query",
+            "spatial.hashgrid.update", "spatial.hashgrid.query", "render.organisms.batched", "render.organisms.density",
+            "render.organisms.batched.zoomed_out", "render.organisms.ellipses" })
+    public String benchmark;
+
+    // Organisms per zone
+    @Param({ "100", "1000", "10000", "100000", "1000000" })
+    public int population;
+
+    private Benchmark target;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Items {
+
+        // Items (e.g. offspring) produced by the measured runs, reported as items/s next to ops/s
+        public long items;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            this.items = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void find() throws ReflectiveOperationException {
+        /*
+        Finds the benchmark named by the parameter in the suites, and builds its state for the trial
+        A suite whose library is not on the class path (e.g. gicentre for HashGridBenchmarks) cannot be loaded, and
+        is skipped
+         */
+
+        for (String suite : SUITES) {
+            List<?> benchmarks;
+            try {
+                benchmarks = (List<?>) Class.forName(suite).getMethod("all").invoke(null);
+            } catch (NoClassDefFoundError e) {
+                continue;
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof NoClassDefFoundError) {
+                    continue;
+                }
+                throw e;
+            }
+
+            for (Object candidate : benchmarks) {
+                if (((Benchmark) candidate).getName().equals(this.benchmark)) {
+                    this.target = (Benchmark) candidate;
+                    this.target.setup(this.population);
+                    return;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("No benchmark " + this.benchmark + ", or its library is not on the class path");
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void run(Items items, Blackhole blackhole) {
+        this.target.run(blackhole);
+        items.items += this.target.getItems();
+    }
+
+}
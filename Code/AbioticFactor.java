@@ -0,0 +1,34 @@
+public enum AbioticFactor {
+
+    // Every abiotic factor of a zone, the ordinal indexes the zone's primitive abiotic array
+    LIGHT_INTENSITY("light_intensity"),
+    CO2("co2"),
+    O2("o2"),
+    TEMP("temp");
+
+    // Name used in analytics and by the old string keyed API
+    private final String name;
+
+    AbioticFactor(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public static AbioticFactor byName(String name) {
+        /*
+        Looks a factor up by its name, e.g. "co2"
+         */
+
+        for (AbioticFactor factor : values()) {
+            if (factor.name.equals(name)) {
+                return factor;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown abiotic factor: " + name);
+    }
+
+}
@@ -0,0 +1,73 @@
+public final class AbioticSnapshot {
+
+    /*
+    Immutable view of a zone's abiotic factors, already mapped through the constraining function
+    One snapshot is taken per phase and handed to every survival(), photosynthesis() and respiration() call,
+    so the inner loops read plain fields instead of building and boxing a Map per organism
+    During LIVING the zone's factors change after every organism, the snapshot is re-taken whenever they no
+    longer equal it exactly (see matches()), so every organism sees the factors the organism before it left
+     */
+
+    // Curvature of the constraining (logistic) function
+    private static final double THETA = -0.2;
+
+    // Mapped abiotic factors, each constrained to the domain of the gene functions
+    public final double light_intensity;
+    public final double co2;
+    public final double o2;
+    public final double temp;
+
+    public AbioticSnapshot(double[] mapped_factors) {
+        /*
+        @param  mapped_factors - mapped abiotic factors of a zone, indexed by AbioticFactor ordinal
+         */
+
+        this.light_intensity = mapped_factors[AbioticFactor.LIGHT_INTENSITY.ordinal()];
+        this.co2 = mapped_factors[AbioticFactor.CO2.ordinal()];
+        this.o2 = mapped_factors[AbioticFactor.O2.ordinal()];
+        this.temp = mapped_factors[AbioticFactor.TEMP.ordinal()];
+    }
+
+    public boolean matches(double[] mapped_factors) {
+        /*
+        Checks whether the snapshot still describes the given mapped factors exactly (bit for bit)
+        Only Carbon Dioxide and Oxygen are ever adjusted during a phase
+
+        @param  mapped_factors - current mapped abiotic factors of the zone
+         */
+
+        double co2 = mapped_factors[AbioticFactor.CO2.ordinal()];
+        double o2 = mapped_factors[AbioticFactor.O2.ordinal()];
+
+        return Double.doubleToLongBits(co2) == Double.doubleToLongBits(this.co2)
+                && Double.doubleToLongBits(o2) == Double.doubleToLongBits(this.o2);
+    }
+
+    public double get(AbioticFactor factor) {
+        switch (factor) {
+            case LIGHT_INTENSITY: return this.light_intensity;
+            case CO2: return this.co2;
+            case O2: return this.o2;
+            default: return this.temp;
+        }
+    }
+
+    public static double map(double raw_factor) {
+        /*
+        The function will take the raw abiotic factor and put it through the constraining function
+        This constrains the abiotic factor to the domain of the gene function
+
+        @param  raw_factor - raw value of the factor in the zone
+        @return mapped_factor - return the factor mapped through the constraining function
+         */
+
+        // calculate the new factor by adding it to the existing one
+        double mapped_factor = 10 / (1 + Math.exp( THETA * raw_factor ) );
+        // translate the curve -5 so it fits the range for the genes
+
+        mapped_factor -= 5;
+
+        return mapped_factor;
+    }
+
+}
@@ -0,0 +1,344 @@
+import java.util.*;
+
+public class AlleleRegistry {
+
+    /*
+    Interned alleles of one zone, one table per GeneType
+    An allele is a (value, dominance) pair identified by a small index, chromosomes only hold these indices
+    Alleles are never changed once made: mutation interns a new allele (copy-on-write) and leaves the old one to
+    everybody else holding it. Each allele counts the chromosome copies of living organisms holding it, and its
+    index is reclaimed when that count drops back to zero.
+    Values are interned exactly as given. Mutation only makes multiples of GeneType.QUANTUM, so apart from the
+    founders' values a table holds at most one allele per multiple and dominance, far fewer than MAX_ALLELES.
+    Fitness is memoised per allele: every table remembers the abiotic input its fitness column was evaluated for,
+    and a different input (any abiotic adjustment, see AbioticSnapshot) invalidates the whole column in O(1).
+    Alleles then have their fitness evaluated again the first time they are asked for it.
+     */
+
+    // Most alleles one table can hold at once, every index fits in the packed genotype (see Genotype)
+    public static final int MAX_ALLELES = 1 << Genotype.ALLELE_BITS;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Table[] tables = new Table[GeneType.values().length];
+
+    public AlleleRegistry() {
+        for (int i = 0; i < this.tables.length; i++) {
+            this.tables[i] = new Table();
+        }
+    }
+
+    public int intern(GeneType type, double value, boolean dominance) {
+        /*
+        Finds the allele with exactly this value and dominance, making it if there is none yet
+        Interning does not count as holding the allele, see acquire()
+
+        @param  type - type of the gene
+        @param  value - value of the allele, within [type.getMinValue(), GeneType.MAX_VALUE]
+        @param  dominance - dominance of the allele
+        @return index of the allele
+         */
+
+        if (!(value >= type.getMinValue() && value <= GeneType.MAX_VALUE)) {
+            throw new IllegalArgumentException("Allele value out of [" + type.getMinValue() + ", "
+                    + GeneType.MAX_VALUE + "] for " + type.getName() + ": " + value);
+        }
+
+        Table table = this.tables[type.ordinal()];
+
+        long key = key(value, dominance);
+
+        int index = table.find(key);
+        if (index >= 0) {
+            return index;
+        }
+
+        // reuse a reclaimed index before growing the table
+        if (table.free_size > 0) {
+            index = table.free[--table.free_size];
+        } else {
+            if (table.size == MAX_ALLELES) {
+                throw new IllegalStateException("More than " + MAX_ALLELES + " alleles of " + type.getName()
+                        + " in one zone");
+            }
+            if (table.size == table.value.length) {
+                table.grow();
+            }
+            index = table.size++;
+        }
+
+        table.value[index] = value;
+        table.dominant[index] = dominance;
+        table.refs[index] = 0;
+        table.live[index] = true;
+        table.insert(key, index);
+        table.fitness_epoch[index] = 0;
+        table.id[index] = Gene.nextId();
+
+        return index;
+    }
+
+    public void acquire(GeneType type, int index) {
+        /*
+        Counts one more chromosome copy holding the allele
+         */
+
+        this.tables[type.ordinal()].refs[index]++;
+    }
+
+    public void release(GeneType type, int index) {
+        /*
+        Counts one less chromosome copy holding the allele, reclaiming its index once nothing holds it
+         */
+
+        Table table = this.tables[type.ordinal()];
+
+        if (--table.refs[index] == 0) {
+            table.remove(key(table.value[index], table.dominant[index]));
+            table.live[index] = false;
+            table.free[table.free_size++] = index;
+        }
+    }
+
+    public void acquire(Species species, long genotype) {
+        /*
+        Counts every allele of a packed genotype as held, when an organism joins the zone
+         */
+
+        GeneType[] genes = species.getGenes();
+        for (int slot = 0; slot < genes.length; slot++) {
+            acquire(genes[slot], Genotype.allele(genotype, slot, 0));
+            acquire(genes[slot], Genotype.allele(genotype, slot, 1));
+        }
+    }
+
+    public void release(Species species, long genotype) {
+        /*
+        Counts every allele of a packed genotype as no longer held, when an organism leaves the zone
+         */
+
+        GeneType[] genes = species.getGenes();
+        for (int slot = 0; slot < genes.length; slot++) {
+            release(genes[slot], Genotype.allele(genotype, slot, 0));
+            release(genes[slot], Genotype.allele(genotype, slot, 1));
+        }
+    }
+
+    public int mutate(GeneType type, int index, SplittableRandom random) {
+        /*
+        Mutation of an allele, the allele itself is left untouched for everybody else holding it
+
+        @param  type - type of the gene
+        @param  index - allele being mutated
+        @param  random - random stream of the zone the mutation happens in
+        @return index of the mutated allele (with the same dominance)
+         */
+
+        Table table = this.tables[type.ordinal()];
+        return intern(type, type.mutate(table.value[index], random), table.dominant[index]);
+    }
+
+    public double value(GeneType type, int index) {
+        return this.tables[type.ordinal()].value[index];
+    }
+
+    public boolean dominant(GeneType type, int index) {
+        return this.tables[type.ordinal()].dominant[index];
+    }
+
+    public long id(GeneType type, int index) {
+        /*
+        @return id of the allele, never shared with another allele even once the index is reused (see gene())
+         */
+
+        return this.tables[type.ordinal()].id[index];
+    }
+
+    public int refs(GeneType type, int index) {
+        /*
+        @return number of chromosome copies of living organisms holding the allele, its frequency in the zone
+         */
+
+        return this.tables[type.ordinal()].refs[index];
+    }
+
+    public boolean isLive(GeneType type, int index) {
+        /*
+        @return whether the index currently names an allele (it has not been reclaimed)
+         */
+
+        return this.tables[type.ordinal()].live[index];
+    }
+
+    public int size(GeneType type) {
+        /*
+        @return number of indices handed out for the type, every allele index is below this
+         */
+
+        return this.tables[type.ordinal()].size;
+    }
+
+    public double fitness(GeneType type, int index, double abiotic_factor) {
+        /*
+        Memoised gene function of an allele
+        The column is only valid for one abiotic input per gene type, asking for another input invalidates it
+
+        @param  type - type of the gene
+        @param  index - allele to evaluate
+        @param  abiotic_factor - mapped abiotic factor the gene responds to
+        @return fitness of the allele
+         */
+
+        Table table = this.tables[type.ordinal()];
+
+        if (abiotic_factor != table.fitness_input) {
+            table.fitness_input = abiotic_factor;
+            table.epoch++;
+        }
+
+        if (table.fitness_epoch[index] != table.epoch) {
+            table.fitness[index] = type.fitness(table.value[index], abiotic_factor);
+            table.fitness_epoch[index] = table.epoch;
+        }
+
+        return table.fitness[index];
+    }
+
+    public Gene gene(GeneType type, int index) {
+        /*
+        Standalone Gene holding a copy of the allele, for analytics and the old Gene based API
+        The Gene carries the allele's id, so views of the same allele compare equal by id, and no other allele
+        ever has it, even once the index is reclaimed and reused
+         */
+
+        Table table = this.tables[type.ordinal()];
+        return type.create(table.value[index], table.dominant[index], table.id[index]);
+    }
+
+    private static long key(double value, boolean dominance) {
+        /*
+        Intern key of an allele: the bits of its value, which is never negative, with dominance in the sign bit
+         */
+
+        return Double.doubleToLongBits(value) | (dominance ? Long.MIN_VALUE : 0);
+    }
+
+    private static class Table {
+
+        // Value and dominance of every allele, by index
+        double[] value = new double[INITIAL_CAPACITY];
+        boolean[] dominant = new boolean[INITIAL_CAPACITY];
+        // Chromosome copies holding every allele, by index
+        int[] refs = new int[INITIAL_CAPACITY];
+        // Whether every index names an allele, false once reclaimed
+        boolean[] live = new boolean[INITIAL_CAPACITY];
+        // Open addressing (linear probing) from intern key to allele index, map_index is -1 for empty buckets
+        long[] map_key = new long[INITIAL_CAPACITY * 2];
+        int[] map_index = new int[INITIAL_CAPACITY * 2];
+        int map_size = 0;
+        // Gene id of every allele, handed out when it is interned and never reused (see gene())
+        long[] id = new long[INITIAL_CAPACITY];
+        // Reclaimed indices, reused before the table grows
+        int[] free = new int[INITIAL_CAPACITY];
+        int free_size = 0;
+
+        // Memoised fitness of every allele, valid when its epoch matches the epoch of the current abiotic input
+        double[] fitness = new double[INITIAL_CAPACITY];
+        long[] fitness_epoch = new long[INITIAL_CAPACITY];
+        double fitness_input = Double.NaN;
+        long epoch = 0;
+
+        int size = 0;
+
+        Table() {
+            Arrays.fill(this.map_index, -1);
+        }
+
+        int find(long key) {
+            /*
+            @return index of the allele with this key, -1 for none
+             */
+
+            int mask = this.map_index.length - 1;
+            for (int bucket = bucket(key, mask); this.map_index[bucket] >= 0; bucket = (bucket + 1) & mask) {
+                if (this.map_key[bucket] == key) {
+                    return this.map_index[bucket];
+                }
+            }
+            return -1;
+        }
+
+        void insert(long key, int index) {
+            /*
+            Maps a key that is not mapped yet, the map is kept at most half full
+             */
+
+            if (2 * (this.map_size + 1) > this.map_index.length) {
+                long[] keys = this.map_key;
+                int[] indices = this.map_index;
+                this.map_key = new long[keys.length * 2];
+                this.map_index = new int[indices.length * 2];
+                Arrays.fill(this.map_index, -1);
+                this.map_size = 0;
+                for (int bucket = 0; bucket < indices.length; bucket++) {
+                    if (indices[bucket] >= 0) {
+                        insert(keys[bucket], indices[bucket]);
+                    }
+                }
+            }
+
+            int mask = this.map_index.length - 1;
+            int bucket = bucket(key, mask);
+            while (this.map_index[bucket] >= 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            this.map_key[bucket] = key;
+            this.map_index[bucket] = index;
+            this.map_size++;
+        }
+
+        void remove(long key) {
+            /*
+            Unmaps a mapped key, moving back the keys probed past it so no lookup stops early at the hole it leaves
+             */
+
+            int mask = this.map_index.length - 1;
+            int hole = bucket(key, mask);
+            while (this.map_key[hole] != key || this.map_index[hole] < 0) {
+                hole = (hole + 1) & mask;
+            }
+
+            for (int bucket = (hole + 1) & mask; this.map_index[bucket] >= 0; bucket = (bucket + 1) & mask) {
+                // a key can fill the hole unless its home bucket lies cyclically within (hole, bucket]
+                int home = bucket(this.map_key[bucket], mask);
+                if (((bucket - home) & mask) >= ((bucket - hole) & mask)) {
+                    this.map_key[hole] = this.map_key[bucket];
+                    this.map_index[hole] = this.map_index[bucket];
+                    hole = bucket;
+                }
+            }
+            this.map_index[hole] = -1;
+            this.map_size--;
+        }
+
+        private static int bucket(long key, int mask) {
+            // nearby values differ in their low bits only, spread every bit of the key over the bucket
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        void grow() {
+            int capacity = Math.min(this.value.length * 2, MAX_ALLELES);
+
+            this.value = Arrays.copyOf(this.value, capacity);
+            this.dominant = Arrays.copyOf(this.dominant, capacity);
+            this.refs = Arrays.copyOf(this.refs, capacity);
+            this.id = Arrays.copyOf(this.id, capacity);
+            this.live = Arrays.copyOf(this.live, capacity);
+            this.free = Arrays.copyOf(this.free, capacity);
+            this.fitness = Arrays.copyOf(this.fitness, capacity);
+            this.fitness_epoch = Arrays.copyOf(this.fitness_epoch, capacity);
+        }
+    }
+
+}
@@ -1,13 +1,17 @@
-import org.gicentre.utils.geom.HashGrid;
-import processing.core.PApplet;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 
-public class Biome extends PApplet {
+public class Biome {
 
     // List of all zones in the Biome (ecosystem), essentially Photic, Aphotic and Abyssal respectively
     // Can theoretically be extended to accommodate more zones
     private List<Zone> zones;
 
+    // Pool stepping zones concurrently, null when zones are stepped sequentially (the default)
+    private ForkJoinPool pool;
+
     public Biome(List<Zone> zones) {
         /*
         One Biome per program, simply assign global list with all Zones created
@@ -18,54 +22,42 @@ public class Biome extends PApplet {
 
     public void biomeSelection() {
         /*
-        Iterates through each zone and performs SELECTION on each
+        Steps every zone through SELECTION
          */
 
-        for (Iterator<Zone> iter = this.zones.listIterator(); iter.hasNext(); ) {
-            Zone zone = iter.next();
-            if (zone.getTotalPopulation() > 0) {
-                zone.selection();
-            }
-        }
+        forEachZone(Zone::selection);
     }
 
     public void biomeMating() {
         /*
-        Iterates through each zone and performs MATING on each
+        Steps every zone through MATING
          */
 
-        for (Iterator<Zone> iter = this.zones.listIterator(); iter.hasNext(); ) {
-            Zone zone = iter.next();
-            if (zone.getTotalPopulation() > 0) {
-                zone.mating();
-            }
-        }
+        forEachZone(Zone::mating);
+    }
+
+    public void biomeMovement() {
+        /*
+        Steps every zone through MOVEMENT
+         */
+
+        forEachZone(Zone::movement);
     }
 
     public void biomeLiving() {
         /*
-        Iterates through each zone and performs LIVING on each
+        Steps every zone through LIVING
          */
 
-        for (Iterator<Zone> iter = this.zones.listIterator(); iter.hasNext(); ) {
-            Zone zone = iter.next();
-            if (zone.getTotalPopulation() > 0) {
-                zone.live();
-            }
-        }
+        forEachZone(Zone::live);
     }
 
     public void biomePredation() {
         /*
-        Iterates through each zone and performs PREDATION on each
+        Steps every zone through PREDATION
          */
 
-        for (Iterator<Zone> iter = this.zones.listIterator(); iter.hasNext(); ) {
-            Zone zone = iter.next();
-            if (zone.getTotalPopulation() > 0) {
-                zone.predation();
-            }
-        }
+        forEachZone(Zone::predation);
     }
 
     public void addRandomCo2() {
@@ -73,28 +65,122 @@ public class Biome extends PApplet {
         Each zone gets some random CO2 to maintain Phytoplankton population
          */
 
+        forEachZone(Zone::addCo2);
+    }
+
+    public void biomeBirths() {
+        /*
+        Every zone's offspring of this tick join its population, once MATING is done
+         */
+
+        forEachZone(Zone::applyBirths);
+    }
+
+    public void biomeCompaction() {
+        /*
+        Compacts the population store of every zone, once the tick's births and deaths are done
+         */
+
+        forEachZone(Zone::compact);
+    }
+
+    public void setParallelism(int threads) {
+        /*
+        Chooses how zones are stepped. With more than one thread every phase runs all zones concurrently on a
+        fork/join pool, and the phase only returns once every zone has finished it (a barrier between phases)
+        Zones own their organisms, genes and abiotic factors, so they never interact within a phase
+        Zones large enough to partition their live phase (Zone.PARTITIONED_LIVE_THRESHOLD) share the pool for it
+
+        @param  threads - number of worker threads, 1 (or less) steps zones sequentially on the calling thread
+         */
+
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+
+        // large zones also split their live phase across the same pool
+        for (Zone zone : this.zones) {
+            zone.setPool(this.pool);
+        }
+    }
+
+    public int getParallelism() {
+        return this.pool == null ? 1 : this.pool.getParallelism();
+    }
+
+    public void shutdown() {
+        /*
+        Releases the worker threads, the Biome carries on sequentially
+         */
+
+        setParallelism(1);
+    }
+
+    private void forEachZone(Consumer<Zone> phase) {
+        /*
+        Performs a phase on every populated zone, sequentially or on the pool
+        Zones are always handed out in the same order, and each zone's work does not depend on the others
+
+        @param  phase - the phase to perform on each zone
+         */
+
+        if (this.pool == null) {
+            for (Iterator<Zone> iter = this.zones.listIterator(); iter.hasNext(); ) {
+                Zone zone = iter.next();
+                if (zone.getTotalPopulation() > 0) {
+                    phase.accept(zone);
+                }
+            }
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(this.zones.size());
         for (Iterator<Zone> iter = this.zones.listIterator(); iter.hasNext(); ) {
-            Zone zone = iter.next();
+            final Zone zone = iter.next();
             if (zone.getTotalPopulation() > 0) {
-                zone.addCo2();
+                tasks.add(this.pool.submit(() -> phase.accept(zone)));
             }
         }
+
+        // barrier, join also rethrows anything thrown inside a zone
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
     }
 
-    public HashGrid getPhoticHashGrid() {
-        return this.zones.get(0).getOrganismHashGrid();
+    public SpatialHash getPhoticSpatialHash() {
+        return this.zones.get(0).getSpatialHash();
     }
 
-    public HashGrid getAPhoticHashGrid() {
-        return this.zones.get(1).getOrganismHashGrid();
+    public SpatialHash getAPhoticSpatialHash() {
+        return this.zones.get(1).getSpatialHash();
     }
 
-    public HashGrid getAbyssalHashGrid() { return this.zones.get(2).getOrganismHashGrid(); }
+    public SpatialHash getAbyssalSpatialHash() { return this.zones.get(2).getSpatialHash(); }
 
     public Zone getZone( int index ) {
         return this.zones.get(index);
     }
 
+    public int getZoneCount() {
+        return this.zones.size();
+    }
+
+    public int getTotalPopulation() {
+        /*
+        Sums the population of every zone in the Biome
+         */
+
+        int total_size = 0;
+        for (Iterator<Zone> iter = this.zones.listIterator(); iter.hasNext(); ) {
+            total_size += iter.next().getTotalPopulation();
+        }
+
+        return total_size;
+    }
+
     public String getGeneFrequencyVerbose() {
         /*
         This function will call the getGenes function and generate a string that can be used for analytics
@@ -140,7 +226,7 @@ public class Biome extends PApplet {
                 to_return += organism;
                 to_return += ": " + organism.getGenotypeString();
 
-                Chromosome gene = (Chromosome) organism.getGenotype().get("Plight");
+                Chromosome gene = organism.getGenotype().get("Plight");
                 if(gene.isHomoRecessive()) {
                     to_return += " REC: " + gene;
                 }
@@ -186,33 +272,6 @@ public class Biome extends PApplet {
 
     }
 
-    public void printGeneFrequency(int width, int height) {
-
-        int i = 0;
-        for (Iterator<Zone> iter = this.zones.listIterator(); iter.hasNext(); ) {
-
-            Zone zone = iter.next();
-            Map<String, Map<Gene, Integer>> zone_genes = zone.getGenes();
-
-            text("--ZONE 0 --", 10, height - 250);
-
-            text("CO2 Level: ", 10, height - 230);
-            text(Double.toString(zone.getCo2()), 40, height - 230);
-
-            text("O2 Level: ", 10, height - 210);
-            text(Double.toString(zone.geto2()), 40, height - 210);
-
-            text("Light Intensity: ", 10, height - 190);
-            text(Double.toString(zone.getLightIntensity()), 40, height - 190);
-
-            text("Temperature: ", 10, height - 170);
-            text(Double.toString(zone.getTemp()), 40, height - 170);
-
-            i++;
-        }
-
-    }
-
     public String getAlleleFrequency() {
 
         String to_return = "";
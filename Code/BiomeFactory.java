@@ -0,0 +1,150 @@
+import java.util.*;
+
+public class BiomeFactory {
+
+    // Minimum radius of organism for making the spatial index
+    static final int RADIUS = 10;
+
+    // Height of each zone in the sketch and the headless runs, the zones are drawn stacked this far apart
+    static final int ZONE_HEIGHT = 200;
+
+    public static Biome createMarineBiome(int width, int zone_height) {
+        /*
+        Builds the marine Biome from a random run seed
+         */
+
+        return createMarineBiome(width, zone_height, new SplittableRandom().nextLong());
+    }
+
+    public static Biome createMarineBiome(int width, int zone_height, long seed) {
+        /*
+        Builds the marine Biome with its initial populations and abiotic levels
+        Kept separate from the Processing sketch so the simulation can be created headless as well
+        Every zone gets its own random stream, split from the run seed in zone order, so the same seed gives the
+        same run whether zones are stepped sequentially or in parallel
+
+        @param  width - width of each zone (collision boundaries)
+        @param  zone_height - height of each zone (collision boundaries)
+        @param  seed - run seed
+        @return the populated Biome holding the Photic, Aphotic and Abyssal zones
+         */
+
+        SplittableRandom run_random = new SplittableRandom(seed);
+        SplittableRandom photic_random = run_random.split();
+        SplittableRandom aphotic_random = run_random.split();
+        SplittableRandom abyssal_random = run_random.split();
+
+        // Every zone interns the alleles of its own organisms
+        AlleleRegistry photic_alleles = new AlleleRegistry();
+        AlleleRegistry aphotic_alleles = new AlleleRegistry();
+        AlleleRegistry abyssal_alleles = new AlleleRegistry();
+
+        // Population of all organisms for each zone
+        // counts are {hom_dom, het_dom, hom_rec} organisms of each species
+        List<Organism> photic_population = populate(photic_alleles, new int[] {5, 5, 5}, new int[] {1, 1, 1}, new int[] {1, 1, 1}, photic_random);
+        List<Organism> aphotic_population = populate(aphotic_alleles, new int[] {5, 3, 2}, new int[] {4, 4, 4}, new int[] {1, 1, 1}, aphotic_random);
+        List<Organism> abyssal_population = populate(abyssal_alleles, new int[] {5, 3, 2}, new int[] {4, 4, 4}, new int[] {1, 1, 1}, abyssal_random);
+
+        // Create zones, each numbering its organisms in the id namespace of its index in the Biome
+        Zone photic = new Zone(photic_population, photic_alleles, 10.0, 40.0,40.0, 5.5, width, zone_height, RADIUS, 0, photic_random);
+        Zone aphotic = new Zone(aphotic_population, aphotic_alleles, -3.0, 40.0, 40.0, 5.5, width, zone_height, RADIUS, 1, aphotic_random);
+        Zone abyssal = new Zone(abyssal_population, abyssal_alleles, -10, 10,10,-10, width, zone_height, RADIUS, 2, abyssal_random);
+
+        // Add newly populated zones to the Biome
+        List<Zone> zones = new ArrayList<>();
+        zones.add(photic);
+        zones.add(aphotic);
+        zones.add(abyssal);
+
+        return new Biome(zones);
+    }
+
+    private static List<Organism> populate(AlleleRegistry alleles, int[] phytoplankton, int[] zooplankton, int[] crustacean,
+                                           SplittableRandom random) {
+        /*
+        Builds the initial population of one zone, with its alleles interned in the zone's registry
+
+        @param  alleles - allele registry of the zone
+        @param  phytoplankton, zooplankton, crustacean - number of {hom_dom, het_dom, hom_rec} organisms per species
+        @param  random - random stream of the zone, used for the shuffle
+        @return shuffled population
+         */
+
+        List<Organism> population = new ArrayList<>();
+
+        // Define initial alleles with pre-determined values. One dominant and one recessive
+        // The recessive Pco2 and Ro2 alleles were 0.3, below the lowest value their genes now allow, and start at
+        // that value instead (GeneType.DEPLETED_MIN_VALUE): mutation only moves an allele within the gene's range,
+        // so one starting below it could never mutate
+        int plight_dominant = alleles.intern(GeneType.PLIGHT, 0.8, true);
+        int plight_recessive = alleles.intern(GeneType.PLIGHT, 0.3, false);
+
+        int pco2_dominant = alleles.intern(GeneType.PCO2, 0.8, true);
+        int pco2_recessive = alleles.intern(GeneType.PCO2, GeneType.DEPLETED_MIN_VALUE, false);
+
+        int ro2_dominant = alleles.intern(GeneType.RO2, 0.8, true);
+        int ro2_recessive = alleles.intern(GeneType.RO2, GeneType.DEPLETED_MIN_VALUE, false);
+
+        int rtemp_dominant = alleles.intern(GeneType.RTEMP, 0.7, true);
+        int rtemp_recessive = alleles.intern(GeneType.RTEMP, 0.2, false);
+
+
+        // Define all possible Chromosomes for population by combining alleles
+        // plight (LightGene)
+        Chromosome plight_hom_dom = new Chromosome(alleles, GeneType.PLIGHT, plight_dominant, plight_dominant);
+        Chromosome plight_het_dom = new Chromosome(alleles, GeneType.PLIGHT, plight_dominant, plight_recessive);
+        Chromosome plight_hom_rec = new Chromosome(alleles, GeneType.PLIGHT, plight_recessive, plight_recessive);
+        // pco2 (CDioxGene)
+        Chromosome pco2_hom_dom = new Chromosome(alleles, GeneType.PCO2, pco2_dominant, pco2_dominant);
+        Chromosome pco2_het_dom = new Chromosome(alleles, GeneType.PCO2, pco2_dominant, pco2_recessive);
+        Chromosome pco2_hom_rec = new Chromosome(alleles, GeneType.PCO2, pco2_recessive, pco2_recessive);
+        // ro2 (OxygenGene)
+        Chromosome ro2_hom_dom = new Chromosome(alleles, GeneType.RO2, ro2_dominant, ro2_dominant);
+        Chromosome ro2_het_dom = new Chromosome(alleles, GeneType.RO2, ro2_dominant, ro2_recessive);
+        Chromosome ro2_hom_rec = new Chromosome(alleles, GeneType.RO2, ro2_recessive, ro2_recessive);
+        // rtemp (TempGene)
+        Chromosome rtemp_hom_dom = new Chromosome(alleles, GeneType.RTEMP, rtemp_dominant, rtemp_dominant);
+        Chromosome rtemp_het_dom = new Chromosome(alleles, GeneType.RTEMP, rtemp_dominant, rtemp_recessive);
+        Chromosome rtemp_het_rec = new Chromosome(alleles, GeneType.RTEMP, rtemp_recessive, rtemp_recessive);
+
+
+        // Phytoplankton Population
+        for (int a = 0; a < phytoplankton[0]; a++) {
+            population.add(new Phytoplankton(plight_hom_dom, pco2_hom_dom));
+        }
+        for (int b = 0; b < phytoplankton[1]; b++) {
+            population.add(new Phytoplankton(plight_het_dom, pco2_het_dom));
+        }
+        for (int c = 0; c < phytoplankton[2]; c++) {
+            population.add(new Phytoplankton(plight_hom_rec, pco2_hom_rec));
+        }
+        // Zooplankton Population
+        for (int a = 0; a < zooplankton[0]; a++) {
+            population.add(new Zooplankton(ro2_hom_dom, rtemp_hom_dom));
+        }
+        for (int b = 0; b < zooplankton[1]; b++) {
+            population.add(new Zooplankton(ro2_het_dom, rtemp_het_dom));
+        }
+        for (int c = 0; c < zooplankton[2]; c++) {
+            population.add(new Zooplankton(ro2_hom_rec, rtemp_het_rec));
+        }
+        // Crustacean Population
+        for (int a = 0; a < crustacean[0]; a++) {
+            population.add(new Crustacean(ro2_hom_dom, rtemp_hom_dom));
+        }
+        for (int b = 0; b < crustacean[1]; b++) {
+            population.add(new Crustacean(ro2_het_dom, rtemp_het_dom));
+        }
+        for (int c = 0; c < crustacean[2]; c++) {
+            population.add(new Crustacean(ro2_hom_rec, rtemp_het_rec));
+        }
+
+        // Shuffle the genome (Fisher-Yates, Collections.shuffle only takes a java.util.Random)
+        for (int i = population.size() - 1; i > 0; i--) {
+            Collections.swap(population, i, random.nextInt(i + 1));
+        }
+
+        return population;
+    }
+
+}
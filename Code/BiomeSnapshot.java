@@ -0,0 +1,35 @@
+public class BiomeSnapshot {
+
+    /*
+    Copy of every zone of the Biome after one tick, published by the SimulationThread for the front end to draw
+    Two snapshots are swapped between the threads (double buffering), see SimulationThread
+     */
+
+    // Snapshot of every zone, in Biome order
+    public final ZoneSnapshot[] zones;
+
+    // Ticks completed when the snapshot was taken, and the tick rate measured by the engine then
+    public long tick = 0;
+    public double ticks_per_second = 0;
+
+    public BiomeSnapshot(int zone_count) {
+        this.zones = new ZoneSnapshot[zone_count];
+        for (int i = 0; i < zone_count; i++) {
+            this.zones[i] = new ZoneSnapshot();
+        }
+    }
+
+    public void capture(SimulationEngine engine) {
+        /*
+        Overwrites the snapshot with the current state of the engine's Biome, only called between ticks
+         */
+
+        for (int i = 0; i < this.zones.length; i++) {
+            this.zones[i].capture(engine.getBiome().getZone(i));
+        }
+
+        this.tick = engine.getTicks();
+        this.ticks_per_second = engine.getTicksPerSecond();
+    }
+
+}
@@ -0,0 +1,72 @@
+import java.util.*;
+
+public class BirthBuffer {
+
+    /*
+    Staging area for the offspring of one zone, filled during MATING and absorbed by the Population store in one
+    append at the end of the tick (see Population.addAll)
+    Offspring are only a species, a packed genotype and a spawn location until then, so mating allocates nothing per
+    pair. The columns are kept between ticks and only grow, doubling, when a tick has more births than any before.
+     */
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Species id (Species ordinal) and packed genotype (see Genotype) of every staged offspring
+    public byte[] species;
+    public long[] genotype;
+    // Spawn location and movement vector of every staged offspring
+    public float[] x, y, dx, dy;
+
+    // Number of staged offspring, entries [0, size) are staged
+    private int size = 0;
+
+    public BirthBuffer() {
+        this.species = new byte[INITIAL_CAPACITY];
+        this.genotype = new long[INITIAL_CAPACITY];
+        this.x = new float[INITIAL_CAPACITY];
+        this.y = new float[INITIAL_CAPACITY];
+        this.dx = new float[INITIAL_CAPACITY];
+        this.dy = new float[INITIAL_CAPACITY];
+    }
+
+    public int stage(Species species, long genotype) {
+        /*
+        Stages one offspring, its spawn location and movement vector are left for the caller to write
+
+        @param  species - species of the offspring
+        @param  genotype - packed genotype, its alleles interned in the registry of the zone
+        @return index of the offspring in the columns
+         */
+
+        if (this.size == this.species.length) {
+            grow();
+        }
+
+        int i = this.size++;
+
+        this.species[i] = (byte) species.ordinal();
+        this.genotype[i] = genotype;
+
+        return i;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    private void grow() {
+        int capacity = this.species.length * 2;
+
+        this.species = Arrays.copyOf(this.species, capacity);
+        this.genotype = Arrays.copyOf(this.genotype, capacity);
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.dx = Arrays.copyOf(this.dx, capacity);
+        this.dy = Arrays.copyOf(this.dy, capacity);
+    }
+
+}
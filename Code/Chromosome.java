@@ -1,57 +1,96 @@
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 public class Chromosome {
 
-    // List of size two storing each allele in the Chromosome
-    private List<Gene> pair;
+    // Type of gene held on this chromosome
+    private GeneType type;
+    // Registry of the zone holding the alleles, and the index of each allele in it
+    private AlleleRegistry alleles;
+    private int allele_a, allele_b;
 
-    public Chromosome(Gene allele_a, Gene allele_b) {
+    public Chromosome(AlleleRegistry alleles, GeneType type, int allele_a, int allele_b) {
         /*
-        Constructor when first Chromosomes are made, with each allele being added to the global pair
+        Constructor for every Chromosome, with each allele given as its index in the registry
+
+        @param  alleles - registry of the zone the organism will live in
+        @param  type - type of gene held on the chromosome
+        @param  allele_a, allele_b - index of each allele
          */
 
-        this.pair = new ArrayList<Gene>();
-        this.pair.add(0, allele_a);
-        this.pair.add(1, allele_b);
+        this.alleles = alleles;
+        this.type = type;
+        this.allele_a = allele_a;
+        this.allele_b = allele_b;
     }
 
-    public Chromosome(List pair) {
-        /*
-        When mating occurs new offspring will use this constructor (pairs will already be made)
-         */
+    public GeneType getType() {
+        return this.type;
+    }
 
-        this.pair = pair;
+    public AlleleRegistry getAlleles() {
+        return this.alleles;
+    }
+
+    public int getAlleleIndex_a() {
+        return this.allele_a;
+    }
+
+    public int getAlleleIndex_b() {
+        return this.allele_b;
     }
 
     public Gene getAllele_a() {
-        return this.pair.get(0);
+        return this.alleles.gene(this.type, this.allele_a);
     }
 
     public Gene getAllele_b() {
-        return this.pair.get(1);
+        return this.alleles.gene(this.type, this.allele_b);
     }
 
-    public List<Gene> getPair() { return this.pair; }
+    public List<Gene> getPair() {
+        /*
+        Both alleles as standalone Genes, for the old Gene based API
+         */
+
+        List<Gene> pair = new ArrayList<Gene>();
+        pair.add(0, getAllele_a());
+        pair.add(1, getAllele_b());
 
-    public Gene getDominant() {
+        return pair;
+    }
+
+    public int getDominantIndex() {
         /*
-        Assesses dominance of both genes to check for dominance, returns which one is
+        Assesses dominance of both alleles to check for dominance, returns the index of which one is
          */
 
-        if (getAllele_a().getDominance() == true) {
-            return getAllele_a();
+        if (this.alleles.dominant(this.type, this.allele_a)) {
+            return this.allele_a;
         } else {
-            return getAllele_b();
+            return this.allele_b;
         }
     }
 
+    public Gene getDominant() {
+        return this.alleles.gene(this.type, getDominantIndex());
+    }
+
+    public double fitness(double abiotic_factor) {
+        /*
+        Fitness of the dominant allele, the gene function evaluated against the mapped abiotic factor
+         */
+
+        return this.alleles.fitness(this.type, getDominantIndex(), abiotic_factor);
+    }
+
     public boolean isHomoRecessive() {
         /*
         Check if the chromosome is homozygous recessive (both alleles must be recessive)
          */
 
-        return (!getAllele_a().getDominance() && !getAllele_b().getDominance());
+        return (!this.alleles.dominant(this.type, this.allele_a) && !this.alleles.dominant(this.type, this.allele_b));
     }
 
     public boolean isHomoDominant() {
@@ -59,7 +98,7 @@ public class Chromosome {
         Check if the chromosome is homozygous dominant (both alleles must be dominant)
          */
 
-        return (getAllele_a().getDominance() && getAllele_b().getDominance());
+        return (this.alleles.dominant(this.type, this.allele_a) && this.alleles.dominant(this.type, this.allele_b));
     }
 
     public boolean isHetDominant() {
@@ -67,16 +106,24 @@ public class Chromosome {
         Check if the chromosome is heterozygous dominant (one allele must be dominant)
          */
 
-        return (getAllele_a().getDominance() || getAllele_b().getDominance());
+        return (this.alleles.dominant(this.type, this.allele_a) || this.alleles.dominant(this.type, this.allele_b));
     }
 
-    public void mutate() {
+    public void mutate(SplittableRandom random) {
         /*
         Call to mutate a random allele in the chromosome
+        Only this chromosome takes the mutated allele, the old one is untouched for every other organism holding it
+        Must be called before the chromosome is acquired
+
+        @param  random - random stream of the zone the mutation happens in
          */
 
-        int rand_allele = (int)(Math.random() * 1);
-        this.pair.get(rand_allele).mutation();
+        int rand_allele = (int)(random.nextDouble() * 1);
+        if (rand_allele == 0) {
+            this.allele_a = this.alleles.mutate(this.type, this.allele_a, random);
+        } else {
+            this.allele_b = this.alleles.mutate(this.type, this.allele_b, random);
+        }
     }
 
 }
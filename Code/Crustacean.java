@@ -1,150 +1,116 @@
-import processing.core.PVector;
 import java.util.*;
 
 public class Crustacean extends Organism {
 
     // lambda = survival_threshold for gene selection
-    private final double lambda = 0.2;
+    public static final double LAMBDA = 0.2;
     // determines how many offspring are likely to be generated during mating, also dependent of organism energy
-    private final double mating_proba = 1.01;
+    private static final double mating_proba = 1.01;
     // determines how many prey likely to be predated by Crustacean during predation, also dependent of organism energy
-    private final double predation_proba = 1.1;
-    // How much space the organism takes within the HashGrid
+    private static final double predation_proba = 1.1;
+    // How much space the organism takes within the zone
     public static final int RADIUS = 18;
 
-    public Crustacean(Chromosome ro2_chromosome, Chromosome rtemp_chromosome, int width, int height) {
+    public Crustacean(Chromosome ro2_chromosome, Chromosome rtemp_chromosome) {
         /*
         Constructor for a new Crustacean organism. Used for the initial population.
 
         @param  ro2_chromosome - Ro2 is the chromosome holding the OxygenGenes for respiration
         @param  ro2_chromosome - Rtemp is the chromosome holding the TempGenes for respiration
-        @param  width - width of the zone (collision detection)
-        @param  height - height of the zone (collision detection)
          */
 
-        // assign random ID
-        this.id = UUID.randomUUID();
+        // pack both chromosomes into the genotype, in gene slot order
+        super(ro2_chromosome.getAlleles(), Genotype.pack(ro2_chromosome, rtemp_chromosome));
+    }
 
-        // add genes to genotype
-        this.genotype.put("Ro2", ro2_chromosome);
-        this.genotype.put("Rtemp", rtemp_chromosome);
+    public Crustacean(AlleleRegistry alleles, long genotype) {
+        /*
+        Constructor for a new Crustacean organism from a packed genotype
 
-        // width and depth of zone to prevent collisions
-        this.width = width;
-        this.height = height;
+        @param  alleles - registry the genotype's alleles are interned in
+        @param  genotype - packed genotype (see Genotype)
+         */
 
-        // set location, movement and colour parameters
-        this.location = new PVector(random(RADIUS, width-RADIUS), random(RADIUS, height-RADIUS));
-        this.movement = new PVector(random(-1,1),  random(-1,1));
-        colour   = color(95, 9, 14);
+        super(alleles, genotype);
     }
 
-    public Crustacean(Map<String, Chromosome> genotype, int width, int height) {
+    public Crustacean(Map<String, Chromosome> genotype) {
         /*
         Constructor for a new Crustacean organism.
         Used for the offspring (assuming the genotype has already been assigned based on parents)
 
         @param  genotype - pre-made Map containing genotype to assign to this new offspring
-        @param  width - width of the zone (collision detection)
-        @param  height - height of the zone (collision detection)
          */
 
         // genotype already made, simply assign to super
         super(genotype);
+    }
 
-        // assign random ID
-        this.id = UUID.randomUUID();
-
-        // width and depth of zone to prevent collisions
-        this.width = width;
-        this.height = height;
-
-        // set location, movement and colour parameters
-        this.location = new PVector(random(RADIUS, width-RADIUS), random(RADIUS, height-RADIUS));
-        this.movement = new PVector(random(-1,1),  random(-1,1));
-        colour   = color(95, 9, 14);
+    @Override
+    public Species getSpecies() {
+        return Species.CRUSTACEAN;
     }
 
     @Override
-    public List<Organism> mate(Organism father) {
+    public int litterSize(SplittableRandom random) {
         /*
-        Will generate offspring based on crossover of parent genotypes (current object and param), used in MATING
+        Determine how many offspring this organism will have with its mate, used in MATING
+        Each offspring's genotype is a crossover of both parents' genotypes (see Organism.crossover)
 
-        @param  father - the father organisms to be crossed over with
-        @return offsprings - a List containing all organisms
+        @param  random - random stream of the zone the offspring are born in
+        @return random_num - number of offspring, based on energy and mating_proba
          */
 
-        List<Organism> offsprings = new ArrayList<Organism>();
-
-        // generate random number based on energy and mating_proba
-        int random_num = (int)this.energy + (int)(Math.random() * mating_proba);
-
-        // generate genotypes based on crossover, make list
-        for (int i = 0; i < random_num; i++) {
-            Map<String, Chromosome> new_genotype = crossover(getGenotype(), father.getGenotype());
-            offsprings.add(new Crustacean(new_genotype, this.width, this.height));
-        }
-
-        return offsprings;
+        return (int)getEnergy() + (int)(random.nextDouble() * mating_proba);
     }
 
     @Override
-    public boolean survival(Map<String, Double> abiotic_factors) {
+    public boolean survival(AbioticSnapshot abiotic_factors) {
         /*
         Determine if the organism will survive by evaluating cumulative fitness, used in SELECTION
         All genes must pass survival threshold (lambda) in order to survive
 
-        @param  abiotic_factors - Map containing all abiotic_factors for the zone occupied in that time step
+        @param  abiotic_factors - snapshot of all mapped abiotic_factors for the zone occupied in that time step
         @return success - boolean based on success of all genes
          */
 
-        // retrieve factors from map and discover the fitness through the Gene
+        // retrieve factors from the snapshot and discover the fitness through the Gene
         // measure fitness for OxygenGene (Ro2)
-        double o2_intensity = abiotic_factors.get("o2");
-        double o2_success = this.genotype.get("Ro2").getDominant().fitness(o2_intensity);
+        double o2_intensity = abiotic_factors.o2;
+        double o2_success = fitness(GeneType.RO2, o2_intensity);
 
         // measure fitness for TempGene (Rtemp)
-        double temp_level = abiotic_factors.get("temp");
-        double temp_success = this.genotype.get("Rtemp").getDominant().fitness(temp_level);
+        double temp_level = abiotic_factors.temp;
+        double temp_success = fitness(GeneType.RTEMP, temp_level);
 
-        return (o2_success > this.lambda && temp_success > this.lambda);
+        return (o2_success > LAMBDA && temp_success > LAMBDA);
     }
 
-    public double respiration(double o2_intensity) {
+    public double respiration(AbioticSnapshot abiotic_factors) {
         /*
         Perform respiration based on gene value and Oxygen level in zone, used in LIVING
         Result of gene function adds to cumulative energy of organism
 
-        @param  o2_intensity - current amount of oxygen in zone
+        @param  abiotic_factors - snapshot of the mapped abiotic factors in zone, Oxygen is used
         @return performance - amount of Oxygen to deplete (also amount of Carbon Dioxide to augment) to zone
          */
 
-        double performance = this.genotype.get("Ro2").getDominant().fitness(o2_intensity);
+        double performance = fitness(GeneType.RO2, abiotic_factors.o2);
         addEnergy(performance);
 
         return performance;
     }
 
-    public List<Organism> predation( List<Organism> prey ) {
+    @Override
+    public int predationDemand(SplittableRandom random) {
         /*
-        Given the list off potential prey (Zooplankton for Crustacean) determine how many and which to kill
-        Used in PREDATION
+        Determine how many prey (Zooplankton for Crustacean) this organism will kill, used in PREDATION
+        Which prey are killed is decided by the zone, over the demand of every predator of the prey species
 
-        @param  prey - List containing all potential prey
-        @return to_kill - List containing all prey determined to kill, based on random selection
+        @param  random - random stream of the zone
+        @return likelihood - number of prey to kill, based on health and predation_proba (upper bound)
          */
 
-        List<Organism> to_kill = new ArrayList<>();
-
-        // random number of how many to prey to kill, based on health and predation_proba (upper bound)
-        int likelihood = (int)this.energy + (int)(Math.random() * predation_proba);
-
-        // based on likelihood, select random prey and add to list
-        for (int i = 0; i < likelihood; i++ ) {
-            int random_org = (int)(Math.random() * prey.size());
-            to_kill.add(prey.get(random_org));
-        }
-
-        return to_kill;
+        return (int)getEnergy() + (int)(random.nextDouble() * predation_proba);
     }
 }
@@ -1,4 +1,3 @@
-import org.gicentre.utils.geom.HashGrid;
 import processing.core.*;
 
 import java.io.FileNotFoundException;
@@ -15,26 +14,47 @@ public class Ecosystem extends PApplet {
 
     //	--GLOBAL VARIABLES--
 
-    // Set up Biome and define zones that divide it
-    List<Zone> zones = new ArrayList<>();
-    Zone photic;
-    Zone aphotic;
-    Zone abyssal;
+    // Set up Biome (built by BiomeFactory), the engine that steps it and the thread it is stepped on
+    // Once the thread has started the Biome belongs to it, draw() only reads the snapshots it publishes
     Biome marine;
+    SimulationEngine engine;
+    SimulationThread simulation;
 
     // Zoomer object for navigational control
     ZoomPan zoomer;
 
-    // Minimum radius of organism for making the HashGrid
+    // Minimum radius of organism, the size organisms are drawn at
     static final int RADIUS = 10;
 
-    // Intial DELAY to frame rate
-    int delay = 100;
+    // Ticks per second the simulation aims for, one tick every 1000/rate milliseconds (the DELAY shown)
+    // s doubles and S halves it within these bounds, doubling past the top runs the simulation uncapped
+    // Many ticks can run per frame, the frame rate is never affected
+    static final double MIN_TARGET_RATE = 0.5;
+    static final double MAX_TARGET_RATE = 10000;
+    double target_rate = 10;
+    boolean uncapped = false;
 
-    // Colour gradient variables
+    // Colour and diameter of each species' ellipses, indexed by Species ordinal
+    int[] species_colours;
+    int[] species_sizes;
+
+    // Draws the organisms of every zone snapshot, a batch per species
+    OrganismRenderer renderer;
+
+    // Colour gradient variables, the gradient is drawn once into its own buffer
     int Y_AXIS = 1;
     int X_AXIS = 2;
     int b1, b2;
+    PGraphics background;
+
+    // HUD layer, redrawn straight away when a control changes it and at most every HUD_INTERVAL milliseconds
+    // when only the statistics behind it change, along with what it was last drawn from
+    static final int HUD_INTERVAL = 200;
+    PGraphics hud;
+    long hud_tick = -1;
+    double hud_target_rate;
+    int hud_pointer, hud_drawn;
+    boolean hud_uncapped, hud_toggle;
 
     // Tracks which zone analytics we are currently looking at
     int info_pointer = 0;
@@ -67,372 +87,209 @@ public class Ecosystem extends PApplet {
         b1 = color(10, 22, 59);
         b2 = color(21, 76, 234);
 
-        int zone_height = 200;
-
-        // Population of all organisms for each zone
-        ArrayList<Organism> photic_population = new ArrayList<>();
-        ArrayList<Organism> aphotic_population = new ArrayList<>();
-        ArrayList<Organism> abyssal_population = new ArrayList<>();
-
-        // Define initial genes with pre-determined values. One dominant and one recessive
-        Gene plight_dominant = new LightGene(0.8, true);
-        Gene plight_recessive = new LightGene(0.3, false);
-
-        Gene pco2_dominant = new CDioxGene(0.8, true);
-        Gene pco2_recessive = new CDioxGene(0.3, false);
-
-        Gene ro2_dominant = new OxygenGene(0.8, true);
-        Gene ro2_recessive = new OxygenGene(0.3, false);
-
-        Gene rtemp_dominant = new TempGene(0.7, true);
-        Gene rtemp_recessive = new TempGene(0.2, false);
-
-
-        // Define all possible Chromosomes for population by combining alleles
-        // plight (LightGene)
-        Chromosome plight_hom_dom = new Chromosome(plight_dominant, plight_dominant);
-        Chromosome plight_het_dom = new Chromosome(plight_dominant, plight_recessive);
-        Chromosome plight_hom_rec = new Chromosome(plight_recessive, plight_recessive);
-        // pco2 (CDioxGene)
-        Chromosome pco2_hom_dom = new Chromosome(pco2_dominant, pco2_dominant);
-        Chromosome pco2_het_dom = new Chromosome(pco2_dominant, pco2_recessive);
-        Chromosome pco2_hom_rec = new Chromosome(pco2_recessive, pco2_recessive);
-        // ro2 (OxygenGene)
-        Chromosome ro2_hom_dom = new Chromosome(ro2_dominant, ro2_dominant);
-        Chromosome ro2_het_dom = new Chromosome(ro2_dominant, ro2_recessive);
-        Chromosome ro2_hom_rec = new Chromosome(ro2_recessive, ro2_recessive);
-        // rtemp (TempGene)
-        Chromosome rtemp_hom_dom = new Chromosome(rtemp_dominant, rtemp_dominant);
-        Chromosome rtemp_het_dom = new Chromosome(rtemp_dominant, rtemp_recessive);
-        Chromosome rtemp_het_rec = new Chromosome(rtemp_recessive, rtemp_recessive);
-
-
-        // PHOTIC Phytoplankton Population
-        for (int a = 0; a < 5; a++) {
-            photic_population.add(new Phytoplankton(plight_hom_dom, pco2_hom_dom, width, zone_height));
-        }
-        for (int b = 0; b < 5; b++) {
-            photic_population.add(new Phytoplankton(plight_het_dom, pco2_het_dom, width, zone_height));
-        }
-        for (int c = 0; c < 5; c++) {
-            photic_population.add(new Phytoplankton(plight_hom_rec, pco2_hom_rec, width, zone_height));
-        }
-        // PHOTIC Zooplankton Population
-        for (int a = 0; a < 1; a++) {
-            photic_population.add(new Zooplankton(ro2_hom_dom, rtemp_hom_dom, width, zone_height));
-        }
-        for (int b = 0; b < 1; b++) {
-            photic_population.add(new Zooplankton(ro2_het_dom, rtemp_het_dom, width, zone_height));
-        }
-        for (int c_ = 0; c_ < 1; c_++) {
-            photic_population.add(new Zooplankton(ro2_hom_rec, rtemp_het_rec, width, zone_height));
-        }
-        // PHOTIC Crustacean Population
-        for (int a = 0; a < 1; a++) {
-            photic_population.add(new Crustacean(ro2_hom_dom, rtemp_hom_dom, width, zone_height));
-        }
-        for (int b = 0; b < 1; b++) {
-            photic_population.add(new Crustacean(ro2_het_dom, rtemp_het_dom, width, zone_height));
-        }
-        for (int c = 0; c < 1; c++) {
-            photic_population.add(new Crustacean(ro2_hom_rec, rtemp_het_rec, width, zone_height));
-        }
+        background = createGraphics(width, height);
+        background.beginDraw();
+        setGradient(background, 0, 0, width, height, b2, b1, Y_AXIS);
+        background.endDraw();
 
-        // APHOTIC Phytoplankton Population
-        for (int a = 0; a < 5; a++) {
-            aphotic_population.add(new Phytoplankton(plight_hom_dom, pco2_hom_dom, width, zone_height));
-        }
-        for (int b = 0; b < 3; b++) {
-            aphotic_population.add(new Phytoplankton(plight_het_dom, pco2_het_dom, width, zone_height));
-        }
-        for (int c = 0; c < 2; c++) {
-            aphotic_population.add(new Phytoplankton(plight_hom_rec, pco2_hom_rec, width, zone_height));
-        }
-        // APHOTIC Zooplankton Population
-        for (int a = 0; a < 4; a++) {
-            aphotic_population.add(new Zooplankton(ro2_hom_dom, rtemp_hom_dom, width, zone_height));
-        }
-        for (int b = 0; b < 4; b++) {
-            aphotic_population.add(new Zooplankton(ro2_het_dom, rtemp_het_dom, width, zone_height));
-        }
-        for (int c = 0; c < 4; c++) {
-            aphotic_population.add(new Zooplankton(ro2_hom_rec, rtemp_het_rec, width, zone_height));
-        }
-        // APHOTIC Crustacean Population
-        for (int a = 0; a < 1; a++) {
-            aphotic_population.add(new Crustacean(ro2_hom_dom, rtemp_hom_dom, width, zone_height));
-        }
-        for (int b = 0; b < 1; b++) {
-            aphotic_population.add(new Crustacean(ro2_het_dom, rtemp_het_dom, width, zone_height));
-        }
-        for (int c = 0; c < 1; c++) {
-            aphotic_population.add(new Crustacean(ro2_hom_rec, rtemp_het_rec, width, zone_height));
-        }
+        hud = createGraphics(width, height);
 
-        // ABYSSAL Phytoplankton Population
-        for (int a = 0; a < 5; a++) {
-            abyssal_population.add(new Phytoplankton(plight_hom_dom, pco2_hom_dom, width, zone_height));
-        }
-        for (int b = 0; b < 3; b++) {
-            abyssal_population.add(new Phytoplankton(plight_het_dom, pco2_het_dom, width, zone_height));
-        }
-        for (int c = 0; c < 2; c++) {
-            abyssal_population.add(new Phytoplankton(plight_hom_rec, pco2_hom_rec, width, zone_height));
-        }
-        // ABYSSAL Zooplankton Population
-        for (int a = 0; a < 4; a++) {
-            abyssal_population.add(new Zooplankton(ro2_hom_dom, rtemp_hom_dom, width, zone_height));
-        }
-        for (int b = 0; b < 4; b++) {
-            abyssal_population.add(new Zooplankton(ro2_het_dom, rtemp_het_dom, width, zone_height));
-        }
-        for (int c = 0; c < 4; c++) {
-            abyssal_population.add(new Zooplankton(ro2_hom_rec, rtemp_het_rec, width, zone_height));
-        }
-        // APHOTIC Crustacean Population
-        for (int a = 0; a < 1; a++) {
-            abyssal_population.add(new Crustacean(ro2_hom_dom, rtemp_hom_dom, width, zone_height));
-        }
-        for (int b = 0; b < 1; b++) {
-            abyssal_population.add(new Crustacean(ro2_het_dom, rtemp_het_dom, width, zone_height));
-        }
-        for (int c = 0; c < 1; c++) {
-            abyssal_population.add(new Crustacean(ro2_hom_rec, rtemp_het_rec, width, zone_height));
-        }
+        // Define organism colours
+        species_colours = new int[Species.values().length];
+        species_colours[Species.PHYTOPLANKTON.ordinal()] = color(86, 206, 60); // Green for Phytoplankton
+        species_colours[Species.ZOOPLANKTON.ordinal()] = color(180, 37, 28); // light red for Zooplankton
+        species_colours[Species.CRUSTACEAN.ordinal()] = color(95, 9, 14);
 
-        // Shuffle the genome
-        Collections.shuffle(photic_population);
-        Collections.shuffle(aphotic_population);
-        Collections.shuffle(abyssal_population);
+        species_sizes = new int[Species.values().length];
+        species_sizes[Species.PHYTOPLANKTON.ordinal()] = RADIUS;
+        species_sizes[Species.ZOOPLANKTON.ordinal()] = RADIUS+5;
+        species_sizes[Species.CRUSTACEAN.ordinal()] = RADIUS+8;
 
-        // Create zones
-        photic = new Zone(photic_population, 10.0, 40.0,40.0, 5.5, width, 300, RADIUS);
-        aphotic = new Zone(aphotic_population, -3.0, 40.0, 40.0, 5.5, width, 300, RADIUS);
-        abyssal = new Zone(abyssal_population, -10, 10,10,-10, width, 300, RADIUS);
+        renderer = new OrganismRenderer(species_colours, species_sizes);
 
-        // Add newly populated zones to the Biome
-        zones.add(photic);
-        zones.add(aphotic);
-        zones.add(abyssal);
+        // the frame rate no longer depends on the simulation, the engine runs on its own thread
+        frameRate(60);
 
-        // Create Biome
-        marine = new Biome(zones);
+        // Create Biome and the engine that steps it, then start stepping it
+        marine = BiomeFactory.createMarineBiome(width, BiomeFactory.ZONE_HEIGHT);
+        engine = new SimulationEngine(marine);
+        simulation = new SimulationThread(engine);
+        simulation.setTargetRate(targetRate());
+        simulation.start();
 
     }
 
-    public void printGeneFrequency( int zone_index ) {
-
-        Zone zone = marine.getZone( zone_index );
-        Map<String, Map<Gene, Integer>> zone_genes = zone.getGenes();
+    public void printGeneFrequency( PGraphics layer, ZoneSnapshot zone, int zone_index ) {
 
         if ( zone_index == 0 ) {
-            text("-- PHOTIC ZONE --", 10, height - 190);
+            layer.text("-- PHOTIC ZONE --", 10, height - 190);
         } else if ( zone_index == 1 ) {
-            text("-- APHOTIC ZONE --", 10, height - 190);
+            layer.text("-- APHOTIC ZONE --", 10, height - 190);
         } else {
-            text("-- ABYSSAL ZONE --", 10, height - 190);
+            layer.text("-- ABYSSAL ZONE --", 10, height - 190);
         }
 
-        text("CO2 Level: ", 10, height - 170);
-        text(Double.toString(zone.getCo2()), 100, height - 170);
+        layer.text("CO2 Level: ", 10, height - 170);
+        layer.text(Double.toString(zone.co2), 100, height - 170);
 
-        text("O2 Level: ", 10, height - 160);
-        text(Double.toString(zone.geto2()), 100, height - 160);
+        layer.text("O2 Level: ", 10, height - 160);
+        layer.text(Double.toString(zone.o2), 100, height - 160);
 
-        text("Light Intensity: ", 10, height - 150);
-        text(Double.toString(zone.getLightIntensity()), 100, height - 150);
+        layer.text("Light Intensity: ", 10, height - 150);
+        layer.text(Double.toString(zone.light_intensity), 100, height - 150);
 
-        text("Temperature: ", 10, height - 140);
-        text(Double.toString(zone.getTemp()), 100, height - 140);
+        layer.text("Temperature: ", 10, height - 140);
+        layer.text(Double.toString(zone.temp), 100, height - 140);
 
         int base = 120;
         int step = 0;
-        for (Map.Entry<String, Map<Gene,Integer>> t:zone_genes.entrySet()) {
-            String key = t.getKey();
-            for (Map.Entry<Gene, Integer> e : t.getValue().entrySet()) {
-
-                text(key + ": ", 10, height - (base - step));
-                text(e.getKey().toString(), 60, height - (base - step));
-                text(e.getKey().dominanceString(), 200, height - (base - step));
-                text("Value: ", 270, height - (base - step));
-                text(Double.toString(e.getKey().getValue()), 310, height - (base - step));
-                text("Frequency: ", 450, height - (base - step));
-                text(Double.toString(e.getValue()), 530, height - (base - step));
+        for (GeneType type : GeneType.values()) {
+            int t = type.ordinal();
+            for (int allele = 0; allele < zone.allele_size[t]; allele++) {
+
+                layer.text(type.getName() + ": ", 10, height - (base - step));
+                layer.text(type.getName() + "#" + zone.allele_id[t][allele], 60, height - (base - step));
+                layer.text(zone.allele_dominant[t][allele] ? "Dominant" : "Recessive", 200, height - (base - step));
+                layer.text("Value: ", 270, height - (base - step));
+                layer.text(Double.toString(zone.allele_value[t][allele]), 310, height - (base - step));
+                layer.text("Frequency: ", 450, height - (base - step));
+                layer.text(Double.toString(zone.allele_frequency[t][allele]), 530, height - (base - step));
 
                 step += 10;
             }
         }
 
-        text("Phytoplankton Frequency: ", 10, height-30);
-        text(Double.toString(zone.getOrganismFrequency("Phytoplankton")), 200, height - 30);
+        layer.text("Phytoplankton Frequency: ", 10, height-30);
+        layer.text(Double.toString(zone.species_totals[Species.PHYTOPLANKTON.ordinal()]), 200, height - 30);
 
-        text("Zooplankton Frequency: ", 10, height-20);
-        text(Double.toString(zone.getOrganismFrequency("Zooplankton")), 200, height - 20);
+        layer.text("Zooplankton Frequency: ", 10, height-20);
+        layer.text(Double.toString(zone.species_totals[Species.ZOOPLANKTON.ordinal()]), 200, height - 20);
 
-        text("Crustacean Frequency: ", 10, height-10);
-        text(Double.toString(zone.getOrganismFrequency("Crustacean")), 200, height - 10);
+        layer.text("Crustacean Frequency: ", 10, height-10);
+        layer.text(Double.toString(zone.species_totals[Species.CRUSTACEAN.ordinal()]), 200, height - 10);
     }
 
-    public void setGradient(int x, int y, float w, float h, int c1, int c2, int axis) {
+    public void setGradient(PGraphics layer, int x, int y, float w, float h, int c1, int c2, int axis) {
 
-        noFill();
+        layer.noFill();
 
         if (axis == Y_AXIS) {  // Top to bottom gradient
             for (int i = y; i <= y+h; i++) {
                 float inter = map(i, y, y+h, 0, 1);
                 int c = lerpColor(c1, c2, inter);
-                stroke(c);
-                line(x, i, x+w, i);
+                layer.stroke(c);
+                layer.line(x, i, x+w, i);
             }
         }
         else if (axis == X_AXIS) {  // Left to right gradient
             for (int i = x; i <= x+w; i++) {
                 float inter = map(i, x, x+w, 0, 1);
                 int c = lerpColor(c1, c2, inter);
-                stroke(c);
-                line(i, y, i, y+h);
+                layer.stroke(c);
+                layer.line(i, y, i, y+h);
             }
         }
     }
 
-    public void drawPhoticOrganisms() {
+    public void displayControlInfo(PGraphics layer, BiomeSnapshot snapshot) {
 
-        // PHOTIC zone
-        // retrieve photic_hash_grid
-        HashGrid<Organism> photic_hash_grid = marine.getPhoticHashGrid();
+        layer.textSize(10);
+        layer.fill(255, 255, 255);
 
-        //
-        for (Organism org : photic_hash_grid) {
-            fill(org.getColour());
+        layer.text("i - toggle info", width-180, height-10);
+        layer.text("z - switch between zones", width-180, height-20);
 
-            if (org instanceof Phytoplankton) {
-                ellipse(org.getLocation().x, org.getLocation().y, RADIUS, RADIUS);
-            } else if (org instanceof Zooplankton){
-                ellipse(org.getLocation().x, org.getLocation().y, RADIUS+5, RADIUS+5);
-            } else {
-                ellipse(org.getLocation().x, org.getLocation().y, RADIUS+8, RADIUS+8);
-            }
-        }
-
-        for (Organism organism : photic_hash_grid) {
-            organism.move();
-        }
-    }
-
-    public void drawAphoticOrgansisms() {
-
-        // APHOTIC
-
-        HashGrid<Organism> aphotic_hash_grid = marine.getAPhoticHashGrid();
-
-        for (Organism org : aphotic_hash_grid) {
-            fill(org.getColour());
+        if (toggle_info) {
 
-            pushMatrix();
-            translate(0,200);
-            if (org instanceof Phytoplankton) {
-                ellipse(org.getLocation().x, org.getLocation().y, RADIUS, RADIUS);
-            } else if (org instanceof Zooplankton){
-                ellipse(org.getLocation().x, org.getLocation().y, RADIUS+5, RADIUS+5);
+            layer.text("s - speed up", 10, height - 210);
+            layer.text("S - slow down", 130, height - 210);
+            if (uncapped) {
+                layer.text("TARGET: UNCAPPED, DELAY: 0 MS", 250, height - 210);
             } else {
-                ellipse(org.getLocation().x, org.getLocation().y, RADIUS+8, RADIUS+8);
+                String rate = String.format(target_rate < 10 ? "%.3g" : "%.0f", target_rate);
+                String period = String.format("%.3g", tickPeriodMillis(target_rate));
+                layer.text("TARGET: " + rate + " TICKS/S, DELAY: " + period + " MS", 250, height - 210);
             }
-            popMatrix();
-        }
-
-        for (Organism organism : aphotic_hash_grid) {
-            organism.move();
-        }
-
-        aphotic_hash_grid.updateAll();
-    }
-
-    public void drawAbyssalOrganisms() {
+            layer.text("TICKS/S: " + String.format("%.1f", snapshot.ticks_per_second), 470, height - 210);
 
-        HashGrid<Organism> abyssal_hash_grid = marine.getAbyssalHashGrid();
+            layer.text("c - reduce CO2", 10, height - 220);
+            layer.text("C - increase CO2", 130, height - 220);
 
-        for (Organism org : abyssal_hash_grid) {
-            fill(org.getColour());
+            layer.text("o - reduce O2", 10, height - 230);
+            layer.text("O - increase O2", 130, height - 230);
 
-            pushMatrix();
-            translate(0,400);
-            if (org instanceof Phytoplankton) {
-                ellipse(org.getLocation().x, org.getLocation().y, RADIUS, RADIUS);
-            } else if (org instanceof Zooplankton){
-                ellipse(org.getLocation().x, org.getLocation().y, RADIUS+5, RADIUS+5);
-            } else {
-                ellipse(org.getLocation().x, org.getLocation().y, RADIUS+8, RADIUS+8);
-            }
-            popMatrix();
+            printGeneFrequency(layer, snapshot.zones[info_pointer], info_pointer);
         }
-
-        for (Organism organism : abyssal_hash_grid) {
-            organism.move();
-        }
-
-        abyssal_hash_grid.updateAll();
     }
 
-    public void displayControlInfo() {
+    public void draw() {
 
-        textSize(10);
-        fill(255, 255, 255);
+        // Draw the background gradient
+        image(background, 0, 0);
 
-        text("i - toggle info", width-180, height-10);
-        text("z - switch between zones", width-180, height-20);
+        // Set the zoomer control for the mouse
+        zoomer.transform();
 
-        if (toggle_info) {
+        // latest state published by the simulation thread, ticks run meanwhile are never waited for
+        BiomeSnapshot snapshot = simulation.latest();
 
-            text("s - speed up", 10, height - 210);
-            text("S - slow down", 130, height - 210);
-            text("DELAY: " + delay, 250, height - 210);
+        // only what is on screen is drawn, and zoomed far out only the species' densities
+        PVector view_corner = zoomer.getDispToCoord(new PVector(0, 0));
+        PVector view_end = zoomer.getDispToCoord(new PVector(width, height));
+        renderer.setView((float) zoomer.getZoomScale(), view_corner.x, view_corner.y, view_end.x, view_end.y);
 
-            text("c - reduce CO2", 10, height - 220);
-            text("C - increase CO2", 130, height - 220);
+        // draw organisms of every zone to screen, each zone a zone height below the last
+        for (int i = 0; i < snapshot.zones.length; i++) {
+            renderer.draw(g, snapshot.zones[i], i * BiomeFactory.ZONE_HEIGHT);
+        }
 
-            text("o - reduce O2", 10, height - 230);
-            text("O - increase O2", 130, height - 230);
+        // draw controls onto screen, from the HUD layer redrawn only when what it shows has changed
+        updateHud(snapshot);
+        image(hud, 0, 0);
 
-            if (info_pointer == 0) {
-                printGeneFrequency(0);
-            } else if (info_pointer == 1) {
-                printGeneFrequency(1);
-            } else if (info_pointer == 2) {
-                printGeneFrequency(2);
-            }
+        // a tick failed, the snapshot drawn is the last one there will be: say so and stop drawing
+        if (simulation.getFailure() != null) {
+            resetMatrix();
+            textSize(14);
+            fill(255, 80, 80);
+            text("SIMULATION STOPPED: " + simulation.getFailure(), 10, 20);
+            noLoop();
         }
     }
 
-    public void draw() {
-
-        // Draw the background gradient
-        setGradient(0, 0, width, height, b2, b1, Y_AXIS);
-
-        // Set the zoomer control for the mouse
-        zoomer.transform();
+    public void keyPressed() {
+        /*
+        Processing key event, called once per key press (draw() runs far more often than keys are pressed, so every
+        press must only change a setting once)
+         */
 
-        // Check for key presses and set changes based on them
-        // s/S increases or decreases speed based on delay to system
-        if (keyPressed && key == 'S') {
-            if (delay < 5000) {
-                delay += 10;
+        // s/S doubles or halves the target rate, S from uncapped goes back to the last rate before it
+        if (key == 's') {
+            if (target_rate * 2 <= MAX_TARGET_RATE) {
+                target_rate *= 2;
+            } else {
+                uncapped = true;
             }
+            simulation.setTargetRate(targetRate());
         }
-        if (keyPressed && key == 's') {
-            if (delay > 0) {
-                delay -= 10;
+        if (key == 'S') {
+            if (uncapped) {
+                uncapped = false;
+            } else if (target_rate / 2 >= MIN_TARGET_RATE) {
+                target_rate /= 2;
             }
+            simulation.setTargetRate(targetRate());
         }
 
         // z flips through zone analytics
-        if (keyPressed && key == 'z') {
+        if (key == 'z') {
             info_pointer++;
             if (info_pointer == 3) {
                 info_pointer = 0;
             }
         }
         // i toggles the analytics
-        if (keyPressed && key == 'i') {
+        if (key == 'i') {
             if (toggle_info) {
                 toggle_info = false;
             } else {
@@ -440,45 +297,72 @@ public class Ecosystem extends PApplet {
             }
         }
 
-        // c/C increase/decrease co2
-        if (keyPressed && key == 'c') {
-            marine.getZone(info_pointer).adjustAbiotic("co2", -1000);
+        // c/C increase/decrease co2, o/O increase/decrease oxygen
+        // the Biome belongs to the simulation thread, so adjustments are handed to it to make between ticks
+        final Zone zone = marine.getZone(info_pointer);
+        if (key == 'c') {
+            simulation.submit(() -> zone.adjustAbiotic(AbioticFactor.CO2, -1000));
         }
-        if (keyPressed && key == 'C') {
-            marine.getZone(info_pointer).adjustAbiotic("co2", 1000);
+        if (key == 'C') {
+            simulation.submit(() -> zone.adjustAbiotic(AbioticFactor.CO2, 1000));
         }
-        // o/O increase/decrease oxygen
-        if (keyPressed && key == 'o') {
-            marine.getZone(info_pointer).adjustAbiotic("o2", -1000);
+        if (key == 'o') {
+            simulation.submit(() -> zone.adjustAbiotic(AbioticFactor.O2, -1000));
         }
-        if (keyPressed && key == 'O') {
-            marine.getZone(info_pointer).adjustAbiotic("o2", 1000);
+        if (key == 'O') {
+            simulation.submit(() -> zone.adjustAbiotic(AbioticFactor.O2, 1000));
         }
+    }
 
+    public void updateHud(BiomeSnapshot snapshot) {
+        /*
+        Redraws the HUD layer if a control it shows changed, or if the statistics moved on and it was last drawn
+        at least HUD_INTERVAL milliseconds ago
 
-        // draw organisms to screen with the helper functions
-        drawPhoticOrganisms();
-        drawAphoticOrgansisms();
-        drawAbyssalOrganisms();
+        @param  snapshot - latest snapshot, the statistics shown
+         */
 
-        // draw controls onto screen with helper
-        displayControlInfo();
+        boolean controls_changed = target_rate != hud_target_rate || uncapped != hud_uncapped
+                || info_pointer != hud_pointer || toggle_info != hud_toggle || hud_tick < 0;
+        boolean stats_changed = snapshot.tick != hud_tick && millis() - hud_drawn >= HUD_INTERVAL;
 
-        // add delay set by user (controls frame rate)
-        delay(delay);
+        if (!controls_changed && !stats_changed) {
+            return;
+        }
 
-        // SIMULATION CYCLE
-        marine.biomeLiving();
-        marine.biomePredation();
-        marine.biomeSelection();
-        marine.biomeMating();
-        // adds random co2 to compensate for Phytoplankton uptake
-        marine.addRandomCo2();
+        hud.beginDraw();
+        hud.clear();
+        displayControlInfo(hud, snapshot);
+        hud.endDraw();
 
+        hud_tick = snapshot.tick;
+        hud_target_rate = target_rate;
+        hud_uncapped = uncapped;
+        hud_pointer = info_pointer;
+        hud_toggle = toggle_info;
+        hud_drawn = millis();
+    }
+
+    public double targetRate() {
+        /*
+        @return ticks per second the simulation should aim for, 0 for uncapped
+         */
+
+        return uncapped ? 0 : target_rate;
+    }
+
+    private double tickPeriodMillis(double target_rate) {
+        /*
+        @param  target_rate - ticks per second aimed for
+        @return DELAY between ticks in milliseconds at that rate
+         */
+
+        return 1000.0 / target_rate;
     }
 
     public void exit() {
-        
+
+        simulation.shutdown();
         System.out.println("STOPPED");
         super.exit();
     }
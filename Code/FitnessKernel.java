@@ -0,0 +1,89 @@
+public class FitnessKernel {
+
+    /*
+    Batch gene function, evaluates the logistic gene function (see GeneType.fitness) of a whole run of organisms
+    in one pass over the theta columns of a Population, rather than one organism and one allele at a time
+    Runs are given as an array of slots (e.g. Population.slots or the flattened species views of a live phase),
+    results are written by position in that array. Kernels hold no state, so one is shared by every zone and thread.
+
+    This is the scalar kernel. The vectorised kernel (VectorFitnessKernel, see Vector/) evaluates several organisms
+    per instruction with the JDK Vector API, which is still an incubator module, so it is built separately and only
+    picked when it can be loaded. Both compute the same function, but vector exponentials may differ from Math.exp
+    in the last bit, so runs are only replayed exactly by the same kernel. -Dfitness.kernel=scalar forces this one.
+     */
+
+    // Name of the vectorised kernel class, loaded reflectively so this file never depends on the incubator module
+    private static final String VECTOR_KERNEL = "VectorFitnessKernel";
+
+    // Kernel used by every zone, picked once
+    private static final FitnessKernel INSTANCE = create();
+
+    public static FitnessKernel get() {
+        return INSTANCE;
+    }
+
+    private static FitnessKernel create() {
+        /*
+        Picks the vectorised kernel when it is on the class path and jdk.incubator.vector is available, else this one
+         */
+
+        if (!"scalar".equals(System.getProperty("fitness.kernel"))) {
+            try {
+                return (FitnessKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // not built, or the JVM was started without --add-modules jdk.incubator.vector
+            }
+        }
+
+        return new FitnessKernel();
+    }
+
+    public String getName() {
+        return "scalar";
+    }
+
+    public int survival(double[] theta_0, double[] theta_1, int[] slots, int from, int to,
+                        double abiotic_0, double abiotic_1, double lambda, boolean[] alive) {
+        /*
+        Survival mask of a run of organisms of one species, both genes must pass lambda (see Organism.survival)
+
+        @param  theta_0, theta_1 - theta columns of gene slots 0 and 1
+        @param  slots - slots of the organisms, the run is slots[from, to)
+        @param  abiotic_0, abiotic_1 - mapped abiotic factors the genes of slots 0 and 1 respond to
+        @param  lambda - survival threshold of the species
+        @param  alive - set for every position in [from, to) to whether the organism survives
+        @return number of organisms that survive
+         */
+
+        int count = 0;
+
+        for (int i = from; i < to; i++) {
+            int slot = slots[i];
+            double fitness_0 = 1/(1 + Math.exp(-theta_0[slot]*abiotic_0));
+            double fitness_1 = 1/(1 + Math.exp(-theta_1[slot]*abiotic_1));
+
+            alive[i] = fitness_0 > lambda && fitness_1 > lambda;
+            if (alive[i]) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    public void fitness(double[] theta, int[] slots, int from, int to, double abiotic_factor, double[] fitness) {
+        /*
+        Gene function of one gene slot for a run of organisms, e.g. the performance of photosynthesis or respiration
+
+        @param  theta - theta column of the gene slot
+        @param  slots - slots of the organisms, the run is slots[from, to)
+        @param  abiotic_factor - mapped abiotic factor the gene responds to
+        @param  fitness - set for every position in [from, to) to the fitness of the organism's gene
+         */
+
+        for (int i = from; i < to; i++) {
+            fitness[i] = 1/(1 + Math.exp(-theta[slots[i]]*abiotic_factor));
+        }
+    }
+
+}
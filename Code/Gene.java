@@ -1,4 +1,4 @@
-import java.util.UUID;
+import java.util.SplittableRandom;
 
 public abstract class Gene {
 
@@ -6,8 +6,10 @@ public abstract class Gene {
     public double value;
     // If this is true, this gene is dominant. Else, it is recessive
     public boolean dominance;
-    // Give each gene a unique ID
-    public UUID id;
+    // Give each gene a unique ID, allocated sequentially (views of an interned allele carry the allele's id)
+    public long id;
+    // Allocator shared by every gene
+    private static final IdAllocator ids = new IdAllocator(IdAllocator.GENE_NAMESPACE);
 
 
     public Gene(double init_value, boolean dominance) {
@@ -17,9 +19,28 @@ public abstract class Gene {
         @param  init_value - the initial unmutated value of the gene
         @param  dominance - the initial dominance of the gene (dominant or recessive based on boolean)
          */
-        this.value = init_value;
+        this(init_value, dominance, nextId());
+    }
+
+    public Gene(double value, boolean dominance, long id) {
+        /*
+        Constructor for a view of an allele that already has an id, e.g. one interned in an AlleleRegistry
+
+        @param  value - value of the allele
+        @param  dominance - dominance of the allele
+        @param  id - id of the allele
+         */
+        this.value = value;
         this.dominance = dominance;
-        this.id = UUID.randomUUID();
+        this.id = id;
+    }
+
+    public static long nextId() {
+        /*
+        @return a new gene id, from the allocator shared by every gene and every interned allele
+         */
+
+        return ids.next();
     }
 
     public double getValue() {
@@ -42,7 +63,14 @@ public abstract class Gene {
         }
     }
 
-    public abstract void mutation();
+    @Override
+    public String toString() {
+        return getType().getName() + "#" + this.id;
+    }
+
+    public abstract GeneType getType();
+
+    public abstract void mutation(SplittableRandom random);
 
     public abstract double fitness( double abiotic_factor );
 
@@ -0,0 +1,112 @@
+import java.util.SplittableRandom;
+
+public enum GeneType {
+
+    // Every type of gene, each responds to one abiotic factor, the ordinal indexes the allele tables of a zone
+    // Genes responding to a factor organisms deplete (CO2, O2) keep their alleles at or above DEPLETED_MIN_VALUE
+    PLIGHT("Plight", AbioticFactor.LIGHT_INTENSITY, GeneType.MIN_VALUE),
+    PCO2("Pco2", AbioticFactor.CO2, GeneType.DEPLETED_MIN_VALUE),
+    RO2("Ro2", AbioticFactor.O2, GeneType.DEPLETED_MIN_VALUE),
+    RTEMP("Rtemp", AbioticFactor.TEMP, GeneType.MIN_VALUE);
+
+    // Max range [-x,x] with which to generate random mutation amount
+    public static final double MUTATION_AMOUNT = 0.07;
+    // Range of values for the gene function to work, mutation keeps every allele within it
+    public static final double MIN_VALUE = 0.1;
+    public static final double MAX_VALUE = 1.0;
+    // Resolution of mutation: a mutated value lands on a multiple of QUANTUM, so however long a zone runs its genes
+    // only ever hold a bounded number of distinct values (see AlleleRegistry)
+    public static final double QUANTUM = 1e-4;
+    // Lowest value of genes responding to a depleted factor. Depletion takes a factor down to about -3.81 once
+    // mapped (the -10 floor of Zone.adjustAbiotic), where any allele below ln(4) / 3.81 = 0.364 still passes the
+    // 0.2 survival threshold: organisms carrying one would never run out of what they consume, and grow unbounded
+    // The original model had no such floor, it did not need one while mutation moved a shared allele for everybody
+    // holding it. With alleles mutating per organism and MIN_VALUE here, every seed PopulationCheck runs passes 5000
+    // organisms within 100 ticks
+    public static final double DEPLETED_MIN_VALUE = 0.37;
+
+    // Name used as the genotype key (e.g. genotype.get("Plight")) and in analytics
+    private final String name;
+    // Abiotic factor the gene function is evaluated against
+    private final AbioticFactor factor;
+    // Lowest value an allele of the gene may have
+    private final double min_value;
+
+    GeneType(String name, AbioticFactor factor, double min_value) {
+        this.name = name;
+        this.factor = factor;
+        this.min_value = min_value;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public AbioticFactor getFactor() {
+        return this.factor;
+    }
+
+    public double getMinValue() {
+        return this.min_value;
+    }
+
+    public double mutate(double value, SplittableRandom random) {
+        /*
+        Mutation rule shared by every gene, adds a random displacement from the original value below or above it
+
+        @param  value - value of the allele being mutated
+        @param  random - random stream of the zone the mutation happens in
+        @return the mutated value, a multiple of QUANTUM within [getMinValue(), MAX_VALUE]
+         */
+
+        // keep generating new values while the new values are out of the range of the value for the function to work
+        double new_value = 0;
+        do {
+            double degree = -MUTATION_AMOUNT + (MUTATION_AMOUNT - (-MUTATION_AMOUNT)) * random.nextDouble();
+            new_value = value + degree;
+        } while(new_value < this.min_value || new_value > MAX_VALUE);
+
+        // rounding can take a value a last bit outside the range, which the range itself then stands in for
+        double quantized = Math.round(new_value / QUANTUM) * QUANTUM;
+        return Math.min(MAX_VALUE, Math.max(this.min_value, quantized));
+    }
+
+    public double fitness(double value, double abiotic_factor) {
+        /*
+        The logistic gene function (see documentation), the same for every gene
+
+        @param  value - theta, the value of the allele
+        @param  abiotic_factor - the x value for the function, the mapped abiotic factor
+         */
+
+        return 1/(1 + Math.exp(-value*abiotic_factor));
+    }
+
+    public Gene create(double value, boolean dominance, long id) {
+        /*
+        Makes a standalone Gene of this type as a view of an allele in an AlleleRegistry, carrying the allele's id
+         */
+
+        switch (this) {
+            case PLIGHT: return new LightGene(value, dominance, id);
+            case PCO2: return new CDioxGene(value, dominance, id);
+            case RO2: return new OxygenGene(value, dominance, id);
+            default: return new TempGene(value, dominance, id);
+        }
+    }
+
+    public static GeneType byName(String name) {
+        /*
+        Looks a gene type up by its genotype key, e.g. "Plight"
+         */
+
+        for (GeneType type : values()) {
+            if (type.name.equals(name)) {
+                return type;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown gene type: " + name);
+    }
+
+}
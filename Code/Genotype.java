@@ -0,0 +1,67 @@
+public final class Genotype {
+
+    /*
+    Packed genotype of an organism, a single long
+    Every species has SLOTS gene slots (see Species.getGenes), each holding two allele indices (copy a and b)
+    of ALLELE_BITS bits, indices into the AlleleRegistry of the organism's zone:
+
+        bits  0-15  slot 0 allele a     bits 32-47  slot 1 allele a
+        bits 16-31  slot 0 allele b     bits 48-63  slot 1 allele b
+     */
+
+    public static final int SLOTS = 2;
+    public static final int ALLELE_BITS = 16;
+    public static final int ALLELE_MASK = (1 << ALLELE_BITS) - 1;
+
+    private Genotype() {
+    }
+
+    public static int allele(long genotype, int slot, int copy) {
+        /*
+        @param  genotype - packed genotype
+        @param  slot - gene slot, in [0, SLOTS)
+        @param  copy - 0 for allele a, 1 for allele b
+        @return the allele index
+         */
+
+        return (int) (genotype >>> shift(slot, copy)) & ALLELE_MASK;
+    }
+
+    public static long with(long genotype, int slot, int copy, int allele) {
+        /*
+        @return the genotype with one allele index replaced
+         */
+
+        int shift = shift(slot, copy);
+        return (genotype & ~((long) ALLELE_MASK << shift)) | ((long) allele << shift);
+    }
+
+    public static long pack(int slot0_a, int slot0_b, int slot1_a, int slot1_b) {
+        long genotype = 0;
+
+        genotype = with(genotype, 0, 0, slot0_a);
+        genotype = with(genotype, 0, 1, slot0_b);
+        genotype = with(genotype, 1, 0, slot1_a);
+        genotype = with(genotype, 1, 1, slot1_b);
+
+        return genotype;
+    }
+
+    public static long pack(Chromosome slot0, Chromosome slot1) {
+        return pack(slot0.getAlleleIndex_a(), slot0.getAlleleIndex_b(), slot1.getAlleleIndex_a(), slot1.getAlleleIndex_b());
+    }
+
+    public static int dominant(long genotype, int slot, GeneType type, AlleleRegistry alleles) {
+        /*
+        Index of the expressed allele of a slot, allele a if it is dominant, else allele b
+         */
+
+        int allele_a = allele(genotype, slot, 0);
+        return alleles.dominant(type, allele_a) ? allele_a : allele(genotype, slot, 1);
+    }
+
+    private static int shift(int slot, int copy) {
+        return (slot * 2 + copy) * ALLELE_BITS;
+    }
+
+}
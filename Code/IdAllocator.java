@@ -0,0 +1,62 @@
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IdAllocator {
+
+    /*
+    Hands out compact, monotonically increasing long ids
+    Each allocator (one per zone, one for genes) owns a namespace held in the top bits, so ids are unique across
+    the whole run without any allocator ever touching another's counter. Namespaces are given by the run (a zone
+    takes its index in the Biome), so the same seed gives the same ids whatever else the JVM has run before.
+    Replaces UUID.randomUUID(), which goes through SecureRandom on every call.
+     */
+
+    // Bits left for the counter below the namespace, 2^40 ids per allocator
+    private static final int COUNTER_BITS = 40;
+
+    // Namespace of the allocator shared by every Gene view, the last one, zones take theirs from 0 up
+    public static final int GENE_NAMESPACE = (1 << (63 - COUNTER_BITS)) - 1;
+
+    // Random high half of every exported UUID, drawn once per run and only when first needed
+    private static volatile Long run_bits;
+
+    private final long base;
+    private final AtomicLong counter = new AtomicLong();
+
+    public IdAllocator(int namespace) {
+        /*
+        @param  namespace - namespace of the ids, unique within the run, e.g. the index of the zone in the Biome
+         */
+
+        this.base = (long) namespace << COUNTER_BITS;
+    }
+
+    public long next() {
+        /*
+        @return a new id, never returned before in this run
+         */
+
+        return this.base | this.counter.getAndIncrement();
+    }
+
+    public static UUID toUuid(long id) {
+        /*
+        Builds a UUID for an id, for exports that need one
+        The same id always gives the same UUID within a run, and ids from different runs never collide
+
+        @param  id - id handed out by any allocator
+        @return UUID made of the run bits and the id
+         */
+
+        if (run_bits == null) {
+            synchronized (IdAllocator.class) {
+                if (run_bits == null) {
+                    run_bits = UUID.randomUUID().getMostSignificantBits();
+                }
+            }
+        }
+
+        return new UUID(run_bits, id);
+    }
+
+}
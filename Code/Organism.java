@@ -1,164 +1,228 @@
-import org.gicentre.utils.geom.Locatable;
-import processing.core.PApplet;
-import processing.core.PVector;
 import java.util.*;
 
-public abstract class Organism extends PApplet implements Locatable {
+public abstract class Organism {
 
-    // ID for identifying the organisms
-    public UUID id;
     // Global mutation rate for every organism
-    public final double mutation_rate = 0.05;
-    // Every organism has an energy based on the fitness of it's genotype
-    public double energy;
-    // Map containing all chromosomes making up the genotype of an organism, identified by a string
-    public Map<String, Chromosome> genotype = new HashMap<String, Chromosome>();
-    // HashGrid information; location and movement for spatial organism behaviour
-    public PVector location, movement;
-    // Colour of ellipse
-    public int colour;
-    // How much space the organism takes within the HashGrid
-    public static int RADIUS;
+    public static final double mutation_rate = 0.05;
+    // Registry of the zone the organism's alleles are interned in
+    public AlleleRegistry alleles;
+    // Packed genotype (see Genotype), one gene slot per gene of the species, never changes after birth
+    public long genotype;
+    // Store of the zone the organism lives in and its slot there
+    // Location, movement and energy are columns of the Population store, not fields of the organism
+    // Bounds and colour are not held per organism either, they come from the zone and the renderer
+    public Population population;
+    public int slot = -1;
 
     public Organism() {
         /*
-        Default constructor assigning a random UUID
+        Default constructor, the organism is given its id when it is added to a zone
          */
-
-        this.id = UUID.randomUUID();
     }
 
-    public Organism(Map<String, Chromosome> genotype) {
+    public Organism(AlleleRegistry alleles, long genotype) {
         /*
         All new offspring will be assigned a genotype generated externally during mating
+
+        @param  alleles - registry of the zone the offspring is born in
+        @param  genotype - packed genotype
          */
 
-        this.id = UUID.randomUUID();
+        this.alleles = alleles;
         this.genotype = genotype;
     }
 
-    public Map getGenotype() { return this.genotype; }
+    public Organism(Map<String, Chromosome> genotype) {
+        /*
+        Offspring from a genotype Map (the old API), packed into the genotype of the species' gene slots
+         */
 
-    public String getGenotypeString() { return this.genotype.toString(); }
+        GeneType[] genes = getSpecies().getGenes();
+        Chromosome slot0 = genotype.get(genes[0].getName());
+        Chromosome slot1 = genotype.get(genes[1].getName());
 
-    public void addEnergy( double adjustment ) {
-        this.energy = adjustment;
+        this.alleles = slot0.getAlleles();
+        this.genotype = Genotype.pack(slot0, slot1);
     }
 
-    public Map crossover(Map<String, Chromosome> ma_genotype, Map<String, Chromosome> pa_genotype) {
+    public Map<String, Chromosome> getGenotype() {
         /*
-        Mendelian crossover of genotype
-        Parent genotypes extracted for chromosome
-        Punnett Square makes all possible permutations of combinations
-        Random combination will be selected for assignment into the offspring genotype
-        Random mutation may occur on genes before they are assigned to the genotype, mutation_rate determines likelihood
-
-        @param  ma_genotype - maternal genotype as a Map
-        @param  pa_genotype - paternal genotype as a Map
-        @return return genotype to assign to offspring
+        The genotype as a Map of Chromosomes by gene name, a compatibility view built from the packed genotype
+        Not for hot paths, use fitness() or the Genotype functions
          */
 
-        Map<String, Chromosome> new_genotype = new HashMap<String, Chromosome>();
+        Map<String, Chromosome> genotype = new HashMap<String, Chromosome>();
 
-        // iterate through each genotype concurrently
-        Iterator<Map.Entry<String, Chromosome>> ma_iter = ma_genotype.entrySet().iterator();
-        Iterator<Map.Entry<String, Chromosome>> pa_iter = pa_genotype.entrySet().iterator();
+        GeneType[] genes = getSpecies().getGenes();
+        for (int slot = 0; slot < genes.length; slot++) {
+            genotype.put(genes[slot].getName(), getChromosome(slot));
+        }
 
-        while ( ma_iter.hasNext() || pa_iter.hasNext() ) {
+        return genotype;
+    }
 
-            // get next gene in both genoypyes
-            Map.Entry<String, Chromosome> ma_gene = ma_iter.next();
-            Map.Entry<String, Chromosome> pa_gene = pa_iter.next();
+    public Chromosome getChromosome(int slot) {
+        return new Chromosome(this.alleles, getSpecies().getGenes()[slot],
+                Genotype.allele(this.genotype, slot, 0), Genotype.allele(this.genotype, slot, 1));
+    }
 
-            // extract Chromosome for crossover
-            Chromosome ma_chromosome = (Chromosome) ma_gene.getValue();
-            Chromosome pa_chromosome = (Chromosome) pa_gene.getValue();
+    public String getGenotypeString() { return getGenotype().toString(); }
 
-            // List of all Gene crosses - make long list first and extract pairs after
-            List<Gene> crosses = new ArrayList<Gene>();
+    public double fitness(GeneType type, double abiotic_factor) {
+        /*
+        Fitness of the expressed (dominant) allele of a gene, the gene function evaluated against the abiotic factor
 
-            // Loops will grab each new combination pair from a each genotype and pair them up
-            for (int i = 0; i < 2; i++) {
-                for (int j = 0; j < 2; j++) {
-                    crosses.add(i, ma_chromosome.getPair().get(i));
-                    crosses.add(j, pa_chromosome.getPair().get(j));
-                }
-            }
+        @param  type - gene to evaluate, must be carried by the species
+        @param  abiotic_factor - mapped abiotic factor
+         */
+
+        int slot = getSpecies().slotOf(type);
+        return this.alleles.fitness(type, Genotype.dominant(this.genotype, slot, type, this.alleles), abiotic_factor);
+    }
+
+    public long getId() {
+        /*
+        ID for identifying the organism, allocated sequentially by the zone's Population
+         */
+
+        return this.population.id[this.slot];
+    }
+
+    public UUID getUuid() {
+        /*
+        UUID for exports, derived from the id only when asked for
+         */
+
+        return IdAllocator.toUuid(getId());
+    }
 
-            // get all cross combinations by dividing up lists
-            Chromosome cross_a = new Chromosome(crosses.subList(0, 2));
-            Chromosome cross_b = new Chromosome(crosses.subList(2, 4));
-            Chromosome cross_c = new Chromosome(crosses.subList(4, 6));
-            Chromosome cross_d = new Chromosome(crosses.subList(6, 8));
+    public double getEnergy() {
+        return this.population.energy[this.slot];
+    }
 
-            List<Chromosome> punnet = new ArrayList<Chromosome>();
+    public void addEnergy( double adjustment ) {
+        this.population.energy[this.slot] = adjustment;
+    }
 
-            punnet.add(0, cross_a);
-            punnet.add(1, cross_b);
-            punnet.add(2, cross_c);
-            punnet.add(3, cross_d);
+    public long crossover(long ma_genotype, long pa_genotype, SplittableRandom random) {
+        /*
+        Mendelian crossover of genotype, on packed genotypes
+        For every gene slot a random combination of the Punnett square is picked straight into the offspring genotype,
+        the square is never built and nothing is allocated
+        Random mutation may occur on genes before they are assigned to the genotype, mutation_rate determines likelihood
 
-            int random_num = (int) (Math.random() * 3);
+        @param  ma_genotype - maternal packed genotype
+        @param  pa_genotype - paternal packed genotype
+        @param  random - random stream of the zone the offspring is born in
+        @return packed genotype to assign to offspring, its alleles are interned in this organism's registry
+         */
 
-            // select a random punnett combination as the new chromosome for thes the offspring for that gene
-            Chromosome new_chromosome = punnet.get(random_num);
+        long new_genotype = 0;
+
+        GeneType[] genes = getSpecies().getGenes();
+        for (int slot = 0; slot < genes.length; slot++) {
+
+            // select a random punnett combination as the new chromosome for the offspring for that gene
+            // only the first three combinations of the square, as it has always been listed, are ever picked:
+            // (pa_a, pa_b), (ma_b, ma_a) and (ma_b, pa_b)
+            int random_num = (int) (random.nextDouble() * 3);
+
+            int allele_a, allele_b;
+            if (random_num == 0) {
+                allele_a = Genotype.allele(pa_genotype, slot, 0);
+                allele_b = Genotype.allele(pa_genotype, slot, 1);
+            } else if (random_num == 1) {
+                allele_a = Genotype.allele(ma_genotype, slot, 1);
+                allele_b = Genotype.allele(ma_genotype, slot, 0);
+            } else {
+                allele_a = Genotype.allele(ma_genotype, slot, 1);
+                allele_b = Genotype.allele(pa_genotype, slot, 1);
+            }
 
             // MUTATION, allow the new chromosome to undergo a random mutation on any one of the alleles
-            if (Math.random() > this.mutation_rate) {
-                new_chromosome.mutate();
+            // the mutated allele is a new one, the parents keep theirs
+            if (random.nextDouble() > mutation_rate) {
+                int rand_allele = (int) (random.nextDouble() * 1);
+                if (rand_allele == 0) {
+                    allele_a = this.alleles.mutate(genes[slot], allele_a, random);
+                } else {
+                    allele_b = this.alleles.mutate(genes[slot], allele_b, random);
+                }
             }
 
-            // put new combination (for this gene) into the new genotype, iterate to next one to complete
-            new_genotype.put(ma_gene.getKey(), new_chromosome);
+            new_genotype = Genotype.with(new_genotype, slot, 0, allele_a);
+            new_genotype = Genotype.with(new_genotype, slot, 1, allele_b);
         }
 
         return new_genotype;
     }
 
-    public PVector getLocation() {
-        return location;
+    public Map<String, Chromosome> crossover(Map<String, Chromosome> ma_genotype, Map<String, Chromosome> pa_genotype,
+                                             SplittableRandom random) {
+        /*
+        Mendelian crossover of genotype Maps (the old API), packs both parents and crosses them over as above
+
+        @param  ma_genotype - maternal genotype as a Map
+        @param  pa_genotype - paternal genotype as a Map
+        @param  random - random stream of the zone the offspring is born in
+        @return return genotype to assign to offspring, as a Map
+         */
+
+        GeneType[] genes = getSpecies().getGenes();
+        long ma = Genotype.pack(ma_genotype.get(genes[0].getName()), ma_genotype.get(genes[1].getName()));
+        long pa = Genotype.pack(pa_genotype.get(genes[0].getName()), pa_genotype.get(genes[1].getName()));
+        long child = crossover(ma, pa, random);
+
+        Map<String, Chromosome> new_genotype = new HashMap<String, Chromosome>();
+        for (int slot = 0; slot < genes.length; slot++) {
+            new_genotype.put(genes[slot].getName(), new Chromosome(this.alleles, genes[slot],
+                    Genotype.allele(child, slot, 0), Genotype.allele(child, slot, 1)));
+        }
+
+        return new_genotype;
+    }
+
+    public float getX() {
+        return this.population.x[this.slot];
     }
 
-    public int getColour()
-    {
-        return colour;
+    public float getY() {
+        return this.population.y[this.slot];
     }
 
     public void move() {
         /*
-        Void method for moving the organism in the HashGrid along vector, maintaining collision detection
-        This method is called at every time step to make movement look realistic
+        Void method for moving the organism along vector, maintaining collision detection
+        Collision boundaries are the bounds of the zone the organism lives in
+        Zones move all their organisms at once every tick (see Zone.movement), this moves just the one
          */
 
-        // generate expected location based on vector direction and old position
-        float newX = location.x + movement.x;
-        float newY = location.y + movement.y;
+        this.population.move(this.slot, this.slot + 1);
 
-        // if the expected location is to be out of the bounds, reverse the vector direction
+        // relinked in the spatial index only if it crossed into another cell
+        this.population.grid.update(this.slot);
+    }
 
-        if ((newX < RADIUS) || (newX > this.width-RADIUS))
-        {
-            movement.x = -movement.x;
-            newX = location.x + movement.x;
-        }
+    public int getRADIUS() {
+        return getSpecies().getRadius();
+    }
 
-        if ((newY < RADIUS) || (newY > this.height-RADIUS))
-        {
-            movement.y = -movement.y;
-            newY = location.y + movement.y;
-        }
+    public int predationDemand(SplittableRandom random) {
+        /*
+        Number of prey the organism will kill this tick, used in PREDATION
+        Only predators (Zooplankton and Crustacean) override this, every other organism kills nothing
 
-        // update location
-        location.x += movement.x;
-        location.y += movement.y;
-    }
+        @param  random - random stream of the zone
+        @return number of prey to kill
+         */
 
-    public int getRADIUS() {
-        return this.RADIUS;
+        return 0;
     }
 
-    public abstract List<Organism> mate(Organism father);
+    public abstract Species getSpecies();
+
+    public abstract int litterSize(SplittableRandom random);
 
-    public abstract boolean survival(Map<String, Double> abiotic_factors);
+    public abstract boolean survival(AbioticSnapshot abiotic_factors);
 
 }
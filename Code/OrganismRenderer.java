@@ -0,0 +1,217 @@
+import processing.core.*;
+
+import java.util.*;
+
+public class OrganismRenderer {
+
+    /*
+    Draws the organisms of ZoneSnapshots in bulk, one batch per species instead of one fill and ellipse per organism
+    Organisms are sorted into a reusable buffer per species, then every species is submitted as a single POINTS
+    shape, each point a round dot as wide as the species' ellipse used to be. One zone transform is applied per zone,
+    and the colour and size are set once per batch, so a frame costs a handful of state changes however many
+    organisms are drawn, and nothing is allocated once the buffers have grown to the population.
+
+    Detail follows the view (see setView):
+     - only the cells of the zone's spatial index that overlap the view are drawn, the rest is never looked at
+     - zoomed out below DENSITY_ZOOM, where organisms are dots of a pixel or two, every species is drawn as a
+       density heatmap instead, a translucent square per cell, from the per cell counts in the snapshot
+     */
+
+    // Zoom scale below which species are drawn as densities rather than organisms
+    public static final float DENSITY_ZOOM = 0.25f;
+
+    // Colour and diameter of each species' dots, indexed by Species ordinal
+    private final int[] colours;
+    private final float[] sizes;
+
+    // Largest radius drawn, organisms this close to the view are drawn in case they overlap it
+    private final float margin;
+
+    // Zoom scale of the view and the area it shows, in the coordinates zones are drawn in (see setView)
+    private float zoom = 1;
+    private float left = Float.NEGATIVE_INFINITY, top = Float.NEGATIVE_INFINITY;
+    private float right = Float.POSITIVE_INFINITY, bottom = Float.POSITIVE_INFINITY;
+
+    // Locations of every species' organisms in the zone being drawn, as x, y pairs, and how many of them there are
+    private float[][] batches;
+    private final int[] counts;
+
+    public OrganismRenderer(int[] colours, int[] sizes) {
+        /*
+        @param  colours - colour of every species, by Species ordinal
+        @param  sizes - diameter of every species, by Species ordinal
+         */
+
+        this.colours = colours.clone();
+        this.sizes = new float[sizes.length];
+        float largest = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            this.sizes[i] = sizes[i];
+            largest = Math.max(largest, sizes[i]);
+        }
+        this.margin = largest / 2;
+
+        this.batches = new float[colours.length][0];
+        this.counts = new int[colours.length];
+    }
+
+    public void setView(float zoom, float left, float top, float right, float bottom) {
+        /*
+        Sets what is on screen, for the zones drawn next. Everything is on screen at zoom 1 until it is first called
+
+        @param  zoom - zoom scale, e.g. ZoomPan's
+        @param  left, top, right, bottom - visible area, before any zone offset (e.g. ZoomPan's display corners)
+         */
+
+        this.zoom = zoom;
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void draw(PGraphics graphics, ZoneSnapshot zone, float offset) {
+        /*
+        Draws every organism of a zone snapshot that is in view, or the species' densities when zoomed out
+
+        @param  graphics - renderer to draw on, e.g. the sketch's own or an offscreen buffer
+        @param  zone - snapshot of the zone to draw
+        @param  offset - top of the zone, e.g. 200 for the Aphotic zone
+         */
+
+        // cells overlapping the view, organisms in the border cells may sit just outside the zone
+        int first_column = (int) Math.floor((this.left - this.margin) / zone.cell_size);
+        int last_column = (int) Math.floor((this.right + this.margin) / zone.cell_size);
+        int first_row = (int) Math.floor((this.top - offset - this.margin) / zone.cell_size);
+        int last_row = (int) Math.floor((this.bottom - offset + this.margin) / zone.cell_size);
+
+        if (last_column < 0 || first_column >= zone.columns || last_row < 0 || first_row >= zone.rows) {
+            return;
+        }
+        first_column = Math.max(0, first_column);
+        last_column = Math.min(zone.columns - 1, last_column);
+        first_row = Math.max(0, first_row);
+        last_row = Math.min(zone.rows - 1, last_row);
+
+        graphics.pushMatrix();
+        graphics.pushStyle();
+        graphics.translate(0, offset);
+
+        if (this.zoom < DENSITY_ZOOM) {
+            drawDensities(graphics, zone, first_column, last_column, first_row, last_row);
+        } else {
+            drawOrganisms(graphics, zone, first_column, last_column, first_row, last_row);
+        }
+
+        graphics.popStyle();
+        graphics.popMatrix();
+    }
+
+    private void drawOrganisms(PGraphics graphics, ZoneSnapshot zone, int first_column, int last_column,
+                               int first_row, int last_row) {
+        /*
+        A POINTS batch per species of the organisms in the given cells
+         */
+
+        batch(zone, first_column, last_column, first_row, last_row);
+
+        graphics.strokeCap(PConstants.ROUND);
+
+        for (int species = 0; species < this.counts.length; species++) {
+            int count = this.counts[species];
+            if (count == 0) {
+                continue;
+            }
+
+            float[] batch = this.batches[species];
+
+            graphics.stroke(this.colours[species]);
+            graphics.strokeWeight(this.sizes[species]);
+            graphics.beginShape(PConstants.POINTS);
+            for (int i = 0; i < count * 2; i += 2) {
+                graphics.vertex(batch[i], batch[i + 1]);
+            }
+            graphics.endShape();
+        }
+    }
+
+    private void drawDensities(PGraphics graphics, ZoneSnapshot zone, int first_column, int last_column,
+                               int first_row, int last_row) {
+        /*
+        A QUADS batch per species, a square per cell in the species' colour, the more opaque the more of the species
+        it holds. Opacity is relative to the species' densest cell in the whole zone (not just the view, so panning
+        does not change it), on a square root scale to keep sparse cells visible
+         */
+
+        int cells = zone.columns * zone.rows;
+        float side = zone.cell_size;
+
+        graphics.noStroke();
+
+        for (int species = 0; species < this.colours.length; species++) {
+            int from = species * cells;
+
+            int densest = 0;
+            for (int cell = from; cell < from + cells; cell++) {
+                densest = Math.max(densest, zone.density[cell]);
+            }
+            if (densest == 0) {
+                continue;
+            }
+
+            graphics.beginShape(PConstants.QUADS);
+            for (int row = first_row; row <= last_row; row++) {
+                for (int column = first_column; column <= last_column; column++) {
+                    int count = zone.density[from + row * zone.columns + column];
+                    if (count == 0) {
+                        continue;
+                    }
+
+                    float x = column * side, y = row * side;
+
+                    graphics.fill(this.colours[species], 255 * (float) Math.sqrt((double) count / densest));
+                    graphics.vertex(x, y);
+                    graphics.vertex(x + side, y);
+                    graphics.vertex(x + side, y + side);
+                    graphics.vertex(x, y + side);
+                }
+            }
+            graphics.endShape();
+        }
+    }
+
+    private void batch(ZoneSnapshot zone, int first_column, int last_column, int first_row, int last_row) {
+        /*
+        Sorts the organisms of the given cells into the per species buffers (counting sort, species keep their order)
+        Cells of a row are contiguous in the snapshot, so every row is a single range of entries
+         */
+
+        Arrays.fill(this.counts, 0);
+        for (int row = first_row; row <= last_row; row++) {
+            int end = zone.cell_start[row * zone.columns + last_column + 1];
+            for (int i = zone.cell_start[row * zone.columns + first_column]; i < end; i++) {
+                this.counts[zone.species[i]]++;
+            }
+        }
+
+        for (int species = 0; species < this.counts.length; species++) {
+            if (this.batches[species].length < this.counts[species] * 2) {
+                this.batches[species] = new float[Math.max(this.counts[species] * 2, this.batches[species].length * 2)];
+            }
+            this.counts[species] = 0;
+        }
+
+        for (int row = first_row; row <= last_row; row++) {
+            int end = zone.cell_start[row * zone.columns + last_column + 1];
+            for (int i = zone.cell_start[row * zone.columns + first_column]; i < end; i++) {
+                int species = zone.species[i];
+                float[] batch = this.batches[species];
+                int at = this.counts[species]++ * 2;
+
+                batch[at] = zone.x[i];
+                batch[at + 1] = zone.y[i];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,360 @@
+import java.util.*;
+
+public class Population {
+
+    /*
+    Columnar (struct-of-arrays) store holding every organism of one zone
+    Each organism occupies one slot, and each column holds one property for every slot, so the hot loops
+    stream through contiguous primitive arrays. Species views and the spatial index are derived from this store,
+    there is no second copy of the population to keep in sync.
+    Slots are stable: a dead organism only leaves a tombstone (a null organism) in its slot, so nobody moves while
+    a phase is running. compact() closes the gaps once per tick, and is the only time organisms change slot.
+     */
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Bounds of the zone, every organism moves within [0, width] x [0, height]
+    public final float width, height;
+
+    // Id of every organism, allocated sequentially per zone
+    public long[] id;
+    // Location and movement vector of every organism
+    public float[] x, y, dx, dy;
+    // Energy of every organism, based on the fitness of its genotype
+    public double[] energy;
+    // Species id (Species ordinal) of every organism
+    public byte[] species;
+    // Packed genotype of every organism (see Genotype), a copy of the organism's own, which never changes
+    public long[] genotype;
+    // Value (theta) of the expressed allele of every gene slot of every organism, by gene slot then slot
+    // Fixed at birth like the genotype, so the gene function of a whole species is a pass over primitive columns
+    public double[][] theta;
+    // Organism in every slot, still carries the species behaviour, null for a tombstone
+    public Organism[] organisms;
+
+    // Number of living organisms, and number of slots in use, slots [0, end) are occupied or tombstones
+    private int size = 0;
+    private int end = 0;
+
+    // Allocator for the ids of every organism added to this store
+    private final IdAllocator ids;
+
+    // Species views: for each species the slots it occupies, and for each slot its position in that list
+    private int[][] species_slots;
+    private int[] species_size;
+    private int[] species_index;
+
+    // Spatial index over the location columns, kept up to date by every add, remove, compaction and move
+    public final SpatialHash grid;
+
+    public Population(float width, float height, float cell_size, int namespace) {
+        /*
+        Makes an empty store, all columns grow as organisms are added
+
+        @param  width, height - bounds of the zone (collision boundaries)
+        @param  cell_size - side of the cells of the spatial index
+        @param  namespace - id namespace of the zone (see IdAllocator)
+         */
+
+        this.width = width;
+        this.height = height;
+        this.ids = new IdAllocator(namespace);
+
+        this.id = new long[INITIAL_CAPACITY];
+        this.x = new float[INITIAL_CAPACITY];
+        this.y = new float[INITIAL_CAPACITY];
+        this.dx = new float[INITIAL_CAPACITY];
+        this.dy = new float[INITIAL_CAPACITY];
+        this.energy = new double[INITIAL_CAPACITY];
+        this.species = new byte[INITIAL_CAPACITY];
+        this.genotype = new long[INITIAL_CAPACITY];
+        this.theta = new double[Genotype.SLOTS][INITIAL_CAPACITY];
+        this.organisms = new Organism[INITIAL_CAPACITY];
+        this.species_index = new int[INITIAL_CAPACITY];
+
+        this.species_slots = new int[Species.values().length][INITIAL_CAPACITY];
+        this.species_size = new int[Species.values().length];
+
+        this.grid = new SpatialHash(this, cell_size, INITIAL_CAPACITY);
+    }
+
+    public int add(Organism organism, float x, float y, float dx, float dy) {
+        /*
+        Appends an organism to the store, allocating its id
+
+        @param  organism - the organism to store, it is told its slot
+        @param  x, y - initial location
+        @param  dx, dy - initial movement vector
+        @return slot - the slot the organism now occupies
+         */
+
+        if (this.end == this.organisms.length) {
+            grow();
+        }
+
+        int slot = this.end++;
+        this.size++;
+        int species_id = organism.getSpecies().ordinal();
+
+        this.id[slot] = this.ids.next();
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.dx[slot] = dx;
+        this.dy[slot] = dy;
+        this.energy[slot] = 0;
+        this.species[slot] = (byte) species_id;
+        this.genotype[slot] = organism.genotype;
+        this.organisms[slot] = organism;
+
+        GeneType[] genes = organism.getSpecies().getGenes();
+        for (int gene_slot = 0; gene_slot < genes.length; gene_slot++) {
+            int dominant = Genotype.dominant(organism.genotype, gene_slot, genes[gene_slot], organism.alleles);
+            this.theta[gene_slot][slot] = organism.alleles.value(genes[gene_slot], dominant);
+        }
+
+        // append to the species view
+        if (this.species_size[species_id] == this.species_slots[species_id].length) {
+            this.species_slots[species_id] = Arrays.copyOf(this.species_slots[species_id],
+                    this.species_slots[species_id].length * 2);
+        }
+        this.species_index[slot] = this.species_size[species_id];
+        this.species_slots[species_id][this.species_size[species_id]++] = slot;
+
+        organism.population = this;
+        organism.slot = slot;
+
+        this.grid.insert(slot);
+
+        return slot;
+    }
+
+    public void move(int from, int to) {
+        /*
+        Moves every organism in slots [from, to) one step along its movement vector, reversing the vector of any
+        organism that would leave the zone bounds (collision detection)
+        One tight loop over the location columns, tombstones are moved too (harmlessly) so it never looks at organisms
+        Ranges that do not overlap can be moved on different threads, the spatial index is left to the caller
+
+        @param  from, to - range of slots to move
+         */
+
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] dx = this.dx;
+        float[] dy = this.dy;
+
+        for (int i = from; i < to; i++) {
+            // generate expected location based on vector direction and old position
+            float new_x = x[i] + dx[i];
+            float new_y = y[i] + dy[i];
+
+            // if the expected location is to be out of the bounds, reverse the vector direction
+            if (new_x < 0 || new_x > this.width) {
+                dx[i] = -dx[i];
+            }
+            if (new_y < 0 || new_y > this.height) {
+                dy[i] = -dy[i];
+            }
+
+            // update location
+            x[i] += dx[i];
+            y[i] += dy[i];
+        }
+    }
+
+    public int addAll(BirthBuffer births, AlleleRegistry alleles) {
+        /*
+        Appends every staged offspring in one batch, growing the columns at most once for the whole batch
+        Organisms are made here, from their species and genotype, in the order they were staged
+
+        @param  births - staged offspring, left as they are
+        @param  alleles - registry the genotypes' alleles are interned in
+        @return slot of the first offspring, the batch occupies the slots from it on
+         */
+
+        int first = this.end;
+
+        while (this.organisms.length < this.end + births.size()) {
+            grow();
+        }
+
+        for (int i = 0; i < births.size(); i++) {
+            Organism organism = Species.byId(births.species[i]).create(alleles, births.genotype[i]);
+            add(organism, births.x[i], births.y[i], births.dx[i], births.dy[i]);
+        }
+
+        return first;
+    }
+
+    public void remove(int slot) {
+        /*
+        Removes the organism in a slot in O(1), leaving a tombstone, no other organism changes slot
+        The last organism of its species takes its place in the species view
+
+        @param  slot - slot of the organism to remove
+         */
+
+        Organism organism = this.organisms[slot];
+        int species_id = this.species[slot];
+
+        // swap-remove from the species view
+        int position = this.species_index[slot];
+        int last_position = --this.species_size[species_id];
+        int moved_member = this.species_slots[species_id][last_position];
+        this.species_slots[species_id][position] = moved_member;
+        this.species_index[moved_member] = position;
+
+        // tombstone, the columns keep their values until compact() reuses the slot
+        this.organisms[slot] = null;
+        this.grid.remove(slot);
+        this.size--;
+
+        organism.population = null;
+        organism.slot = -1;
+    }
+
+    public void compact() {
+        /*
+        Moves every organism down over the tombstones before it, keeping their order, so slots [0, size) are
+        all occupied again. O(end), and nothing to do when nobody has died since the last compaction
+         */
+
+        if (this.size == this.end) {
+            return;
+        }
+
+        int to = 0;
+        for (int from = 0; from < this.end; from++) {
+            if (this.organisms[from] == null) {
+                continue;
+            }
+
+            if (from != to) {
+                this.id[to] = this.id[from];
+                this.x[to] = this.x[from];
+                this.y[to] = this.y[from];
+                this.dx[to] = this.dx[from];
+                this.dy[to] = this.dy[from];
+                this.energy[to] = this.energy[from];
+                this.species[to] = this.species[from];
+                this.genotype[to] = this.genotype[from];
+                for (double[] column : this.theta) {
+                    column[to] = column[from];
+                }
+                this.organisms[to] = this.organisms[from];
+                this.species_index[to] = this.species_index[from];
+
+                this.species_slots[this.species[to]][this.species_index[to]] = to;
+                this.organisms[to].slot = to;
+                this.grid.move(from, to);
+            }
+            to++;
+        }
+
+        Arrays.fill(this.organisms, to, this.end, null);
+        this.end = to;
+    }
+
+    public boolean contains(Organism organism) {
+        return organism.population == this && organism.slot >= 0 && this.organisms[organism.slot] == organism;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int end() {
+        /*
+        @return number of slots in use, every organism's slot is below this, tombstones included
+         */
+
+        return this.end;
+    }
+
+    public boolean isTombstone(int slot) {
+        return this.organisms[slot] == null;
+    }
+
+    public int size(Species species) {
+        return this.species_size[species.ordinal()];
+    }
+
+    public int slot(Species species, int index) {
+        /*
+        @param  species - species of the view
+        @param  index - position in the species view, in [0, size(species))
+        @return the slot of that member
+         */
+
+        return this.species_slots[species.ordinal()][index];
+    }
+
+    public int[] slots(Species species) {
+        /*
+        Slots of every member of a species, in species view order, for batch kernels (see FitnessKernel)
+        Backing array of the view, only valid until the next add or remove and must not be modified
+
+        @return array whose first size(species) entries are the slots of the species
+         */
+
+        return this.species_slots[species.ordinal()];
+    }
+
+    public Organism get(Species species, int index) {
+        return this.organisms[slot(species, index)];
+    }
+
+    public List<Organism> view(final Species species) {
+        /*
+        Read-only live view of one species, backed by the store
+         */
+
+        return new SpeciesView(species);
+    }
+
+    private void grow() {
+        /*
+        Doubles the capacity of every column
+         */
+
+        int capacity = this.organisms.length * 2;
+
+        this.id = Arrays.copyOf(this.id, capacity);
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.dx = Arrays.copyOf(this.dx, capacity);
+        this.dy = Arrays.copyOf(this.dy, capacity);
+        this.energy = Arrays.copyOf(this.energy, capacity);
+        this.species = Arrays.copyOf(this.species, capacity);
+        this.genotype = Arrays.copyOf(this.genotype, capacity);
+        for (int gene_slot = 0; gene_slot < this.theta.length; gene_slot++) {
+            this.theta[gene_slot] = Arrays.copyOf(this.theta[gene_slot], capacity);
+        }
+        this.organisms = Arrays.copyOf(this.organisms, capacity);
+        this.species_index = Arrays.copyOf(this.species_index, capacity);
+        this.grid.grow(capacity);
+    }
+
+    private class SpeciesView extends AbstractList<Organism> implements RandomAccess {
+
+        private final Species species;
+
+        SpeciesView(Species species) {
+            this.species = species;
+        }
+
+        @Override
+        public Organism get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return Population.this.get(this.species, index);
+        }
+
+        @Override
+        public int size() {
+            return Population.this.size(this.species);
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+import java.util.*;
+
+public class SimulationEngine {
+
+    // The Biome being simulated, every tick steps all of its zones through the simulation cycle
+    private Biome biome;
+    // Observers told about every completed tick (e.g. the Processing front end or a console reporter)
+    private List<SimulationObserver> observers = new ArrayList<>();
+    // Number of ticks completed since the engine was created
+    private long ticks = 0;
+
+    // Tick rate is measured over windows of roughly RATE_WINDOW nanoseconds
+    private static final long RATE_WINDOW = 1000000000L;
+    private long window_start = System.nanoTime();
+    private long window_ticks = 0;
+    private double ticks_per_second = 0;
+
+    public SimulationEngine(Biome biome) {
+        /*
+        The engine only needs the Biome, it has no dependency on Processing so it can run headless
+
+        @param  biome - the populated Biome to simulate
+         */
+
+        this.biome = biome;
+    }
+
+    public void tick() {
+        /*
+        Performs one full SIMULATION CYCLE over the Biome and notifies observers
+         */
+
+        this.biome.biomeMovement();
+        this.biome.biomeLiving();
+        this.biome.biomePredation();
+        this.biome.biomeSelection();
+        this.biome.biomeMating();
+        // adds random co2 to compensate for Phytoplankton uptake
+        this.biome.addRandomCo2();
+        // offspring are only staged while mating, they all join their zone here
+        this.biome.biomeBirths();
+        // deaths only leave tombstones, close the gaps once per tick
+        this.biome.biomeCompaction();
+
+        this.ticks++;
+        measureRate();
+
+        for (SimulationObserver observer : this.observers) {
+            observer.tickCompleted(this);
+        }
+    }
+
+    public void run(long count) {
+        /*
+        Runs the given number of ticks in a tight loop, with no frame pacing
+
+        @param  count - number of ticks to perform
+         */
+
+        for (long i = 0; i < count; i++) {
+            tick();
+        }
+    }
+
+    private void measureRate() {
+        /*
+        Updates the tick rate once the current measurement window has elapsed
+         */
+
+        this.window_ticks++;
+
+        long now = System.nanoTime();
+        long elapsed = now - this.window_start;
+
+        if (elapsed >= RATE_WINDOW) {
+            this.ticks_per_second = this.window_ticks * 1e9 / elapsed;
+            this.window_start = now;
+            this.window_ticks = 0;
+        }
+    }
+
+    public void addObserver(SimulationObserver observer) {
+        this.observers.add(observer);
+    }
+
+    public void removeObserver(SimulationObserver observer) {
+        this.observers.remove(observer);
+    }
+
+    public Biome getBiome() {
+        return this.biome;
+    }
+
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    public double getTicksPerSecond() {
+        return this.ticks_per_second;
+    }
+
+    public static void main(String[] args) {
+        /*
+        Headless entry point, no window, no OpenGL and no frame pacing
+        Usage: java SimulationEngine [ticks] [width] [threads] [seed]
+
+        @param  args - optional number of ticks to run (default 10000), zone width (default 1024),
+                       threads stepping zones in parallel (default one per core, 1 for sequential)
+                       and run seed (default random), the same seed always replays the same run
+         */
+
+        long count = args.length > 0 ? Long.parseLong(args[0]) : 10000;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+
+        System.out.println("SEED: " + seed);
+
+        SimulationEngine engine = new SimulationEngine(BiomeFactory.createMarineBiome(width, BiomeFactory.ZONE_HEIGHT, seed));
+        engine.getBiome().setParallelism(threads);
+
+        // report progress roughly once per second, whenever the measured rate is refreshed
+        engine.addObserver(new SimulationObserver() {
+            private double last_rate = 0;
+
+            @Override
+            public void tickCompleted(SimulationEngine engine) {
+                if (engine.getTicksPerSecond() != this.last_rate) {
+                    this.last_rate = engine.getTicksPerSecond();
+                    System.out.println("TICK: " + engine.getTicks()
+                            + " TICKS/S: " + String.format("%.1f", this.last_rate)
+                            + " POPULATION: " + engine.getBiome().getTotalPopulation());
+                }
+            }
+        });
+
+        long start = System.nanoTime();
+        engine.run(count);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("FINISHED " + count + " ticks in " + String.format("%.2f", seconds) + "s ("
+                + String.format("%.1f", count / seconds) + " ticks/s, " + threads + " threads)"
+                + " POPULATION: " + engine.getBiome().getTotalPopulation());
+
+        engine.getBiome().shutdown();
+    }
+
+}
@@ -0,0 +1,10 @@
+public interface SimulationObserver {
+
+    /*
+    Anything interested in the progress of the simulation (front ends, loggers, analytics) implements this
+    and registers itself with the SimulationEngine, it is then called after every completed time step
+     */
+
+    void tickCompleted(SimulationEngine engine);
+
+}
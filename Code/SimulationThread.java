@@ -0,0 +1,196 @@
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+public class SimulationThread extends Thread {
+
+    /*
+    Steps a SimulationEngine on its own thread, so a heavy tick never drops frames and a slow frame never holds
+    the simulation back. The front end never touches the engine while it runs:
+     - it draws BiomeSnapshots, taken by this thread between ticks
+     - it changes the simulation (e.g. abiotic adjustments) by submitting commands, run by this thread between ticks
+
+    Snapshots are double buffered: the front end renders one while this thread captures the other into it. A new
+    snapshot is only captured once the front end has taken the last one published, ticks in between are not
+    captured at all, so snapshots cost at most one capture per frame drawn.
+
+    Ticks are scheduled on a fixed timestep: with a target rate every tick is due 1/rate seconds after the last one
+    was due, however long ticks take, so the rate holds on average and is independent of the frame rate (many ticks
+    per frame when the target is above it). After a stall the missed ticks run back to back to catch up, at most
+    MAX_LAG worth of them. With no target (uncapped) ticks run back to back as fast as the hardware allows.
+     */
+
+    // Most the scheduler falls behind before it gives up catching up, in nanoseconds
+    private static final long MAX_LAG = 250000000L;
+
+    private final SimulationEngine engine;
+
+    // The two snapshot buffers, the one last published and whether the front end has taken it yet
+    private final BiomeSnapshot[] buffers = new BiomeSnapshot[2];
+    private BiomeSnapshot published = null;
+    private boolean taken = true;
+
+    // Commands waiting for the next gap between ticks
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+
+    // Ticks per second the scheduler aims for, 0 runs the engine uncapped
+    private volatile double target_rate = 0;
+    private volatile boolean running = true;
+
+    // What stopped the thread if a tick failed, null while it runs (or once it was shut down normally)
+    private volatile Throwable failure = null;
+
+    public SimulationThread(SimulationEngine engine) {
+        /*
+        @param  engine - engine to step, only ever touched by this thread once it has started
+         */
+
+        super("simulation");
+        setDaemon(true);
+
+        this.engine = engine;
+        for (int i = 0; i < this.buffers.length; i++) {
+            this.buffers[i] = new BiomeSnapshot(engine.getBiome().getZoneCount());
+        }
+
+        // the front end has something to draw before the first tick
+        publish();
+    }
+
+    @Override
+    public void run() {
+        try {
+            step();
+        } catch (Throwable e) {
+            // the front end would otherwise keep drawing the last snapshot as if nothing happened, see getFailure()
+            this.failure = e;
+            this.running = false;
+            e.printStackTrace();
+        } finally {
+            this.engine.getBiome().shutdown();
+        }
+    }
+
+    private void step() {
+        /*
+        Steps the engine until shutdown(), on the fixed timestep
+         */
+
+        // time the next tick is due
+        long due = System.nanoTime();
+
+        while (this.running) {
+            Runnable command;
+            while ((command = this.commands.poll()) != null) {
+                command.run();
+            }
+
+            this.engine.tick();
+            publish();
+
+            double rate = this.target_rate;
+            if (rate <= 0) {
+                due = System.nanoTime();
+                continue;
+            }
+
+            due += (long) (1e9 / rate);
+            long now = System.nanoTime();
+
+            if (now - due > MAX_LAG) {
+                // too far behind (or the target was just raised), carry on from now rather than in a burst
+                due = now;
+            }
+
+            // wait for the next tick to be due, shutdown() unparks the thread
+            long wait;
+            while (this.running && (wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    private void publish() {
+        /*
+        Captures a snapshot into the buffer the front end is not holding, if it has taken the last one
+         */
+
+        BiomeSnapshot buffer;
+        synchronized (this) {
+            if (!this.taken) {
+                return;
+            }
+            // the front end holds the published buffer (or nothing yet), the other one is free
+            buffer = this.published == this.buffers[0] ? this.buffers[1] : this.buffers[0];
+        }
+
+        buffer.capture(this.engine);
+
+        synchronized (this) {
+            this.published = buffer;
+            this.taken = false;
+        }
+    }
+
+    public synchronized BiomeSnapshot latest() {
+        /*
+        The latest snapshot, for the front end. It is the front end's until its next call, this thread only ever
+        captures into the other buffer meanwhile
+
+        @return snapshot of the latest tick captured
+         */
+
+        this.taken = true;
+        return this.published;
+    }
+
+    public void submit(Runnable command) {
+        /*
+        Runs a command on this thread before the next tick, the only safe way for other threads to change the Biome
+
+        @param  command - e.g. an abiotic adjustment
+         */
+
+        this.commands.add(command);
+    }
+
+    public void setTargetRate(double ticks_per_second) {
+        /*
+        @param  ticks_per_second - rate the scheduler aims for, 0 (or less) to run uncapped
+         */
+
+        this.target_rate = ticks_per_second;
+    }
+
+    public double getTargetRate() {
+        return this.target_rate;
+    }
+
+    public Throwable getFailure() {
+        /*
+        @return what a tick (or a command) threw, stopping the thread, null if nothing did
+         */
+
+        return this.failure;
+    }
+
+    public SimulationEngine getEngine() {
+        return this.engine;
+    }
+
+    public void shutdown() {
+        /*
+        Stops stepping once the current tick is done and waits for the thread to finish
+         */
+
+        this.running = false;
+        LockSupport.unpark(this);
+
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+import java.util.*;
+
+public class SpatialHash {
+
+    /*
+    Uniform grid spatial index over the location columns of a Population, replacing gicentre's HashGrid
+    The zone is split into square cells, every cell holds a linked list of the slots located in it, made of primitive
+    arrays indexed by slot (no sets, no boxing, no PVectors). The Population keeps it up to date as organisms are
+    added, removed and compacted, and a moving organism is only relinked when it crosses into another cell,
+    so nothing is rehashed per frame and nothing is allocated once the arrays have grown to the population.
+     */
+
+    // Side of every cell, and the number of cells across and down the zone
+    private final float cell_size;
+    private final int columns, rows;
+
+    // First slot of every cell, -1 for an empty cell
+    private final int[] head;
+    // Cell of every slot (-1 for slots not indexed, e.g. tombstones), and the previous and next slot in that cell
+    private int[] cell, previous, next;
+
+    // Population whose x and y columns are indexed
+    private final Population population;
+
+    public SpatialHash(Population population, float cell_size, int capacity) {
+        /*
+        @param  population - store whose organisms are indexed
+        @param  cell_size - side of every cell, at least the largest radius queried for best results
+        @param  capacity - initial number of slots, see grow()
+         */
+
+        this.population = population;
+        this.cell_size = cell_size;
+        this.columns = Math.max(1, (int) Math.ceil(population.width / cell_size));
+        this.rows = Math.max(1, (int) Math.ceil(population.height / cell_size));
+
+        this.head = new int[this.columns * this.rows];
+        Arrays.fill(this.head, -1);
+
+        this.cell = new int[capacity];
+        this.previous = new int[capacity];
+        this.next = new int[capacity];
+        Arrays.fill(this.cell, -1);
+    }
+
+    public void insert(int slot) {
+        /*
+        Indexes the organism in a slot at its current location
+         */
+
+        link(slot, cellOf(this.population.x[slot], this.population.y[slot]));
+    }
+
+    public void remove(int slot) {
+        /*
+        Stops indexing a slot, e.g. when its organism dies
+         */
+
+        if (this.cell[slot] >= 0) {
+            unlink(slot);
+        }
+    }
+
+    public boolean update(int slot) {
+        /*
+        Relinks a slot after its organism moved, only if it crossed into another cell
+
+        @return whether the organism changed cell
+         */
+
+        int new_cell = cellOf(this.population.x[slot], this.population.y[slot]);
+        if (new_cell == this.cell[slot] || this.cell[slot] < 0) {
+            return false;
+        }
+
+        unlink(slot);
+        link(slot, new_cell);
+        return true;
+    }
+
+    public int updateAll() {
+        /*
+        Updates every indexed slot, for when the location columns were written directly (see update)
+
+        @return number of organisms that changed cell
+         */
+
+        int moved = 0;
+        for (int slot = 0; slot < this.population.end(); slot++) {
+            if (update(slot)) {
+                moved++;
+            }
+        }
+
+        return moved;
+    }
+
+    public void move(int from, int to) {
+        /*
+        Renumbers an indexed slot in place, when compaction moves its organism to another (unindexed) slot
+         */
+
+        int c = this.cell[from];
+
+        this.cell[to] = c;
+        this.previous[to] = this.previous[from];
+        this.next[to] = this.next[from];
+
+        if (this.previous[to] >= 0) {
+            this.next[this.previous[to]] = to;
+        } else {
+            this.head[c] = to;
+        }
+        if (this.next[to] >= 0) {
+            this.previous[this.next[to]] = to;
+        }
+
+        this.cell[from] = -1;
+    }
+
+    public void grow(int capacity) {
+        /*
+        Grows the per slot arrays along with the Population columns
+         */
+
+        int old_capacity = this.cell.length;
+
+        this.cell = Arrays.copyOf(this.cell, capacity);
+        this.previous = Arrays.copyOf(this.previous, capacity);
+        this.next = Arrays.copyOf(this.next, capacity);
+        Arrays.fill(this.cell, old_capacity, capacity, -1);
+    }
+
+    public int query(float x, float y, float radius, int[] result) {
+        /*
+        Radius query, finds every organism within radius of a point
+        Only the cells overlapping the circle's bounding box are visited
+
+        @param  x, y - centre of the query
+        @param  radius - distance from the centre, inclusive
+        @param  result - filled with the slots found, as many as fit
+        @return number of organisms found, more than result.length when it was too small to hold them all
+         */
+
+        float[] xs = this.population.x;
+        float[] ys = this.population.y;
+        float radius_squared = radius * radius;
+
+        int first_column = column(x - radius), last_column = column(x + radius);
+        int first_row = row(y - radius), last_row = row(y + radius);
+
+        int found = 0;
+        for (int r = first_row; r <= last_row; r++) {
+            for (int c = first_column; c <= last_column; c++) {
+                for (int slot = this.head[r * this.columns + c]; slot >= 0; slot = this.next[slot]) {
+                    float distance_x = xs[slot] - x;
+                    float distance_y = ys[slot] - y;
+
+                    if (distance_x * distance_x + distance_y * distance_y <= radius_squared) {
+                        if (found < result.length) {
+                            result[found] = slot;
+                        }
+                        found++;
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    public int getCell(int slot) {
+        /*
+        @return cell the slot is indexed in, -1 if it is not indexed
+         */
+
+        return this.cell[slot];
+    }
+
+    public int getColumns() {
+        return this.columns;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+
+    public float getCellSize() {
+        return this.cell_size;
+    }
+
+    private int cellOf(float x, float y) {
+        return row(y) * this.columns + column(x);
+    }
+
+    private int column(float x) {
+        // organisms bouncing off the edges may sit just outside the zone, clamp them into the border cells
+        return Math.min(this.columns - 1, Math.max(0, (int) (x / this.cell_size)));
+    }
+
+    private int row(float y) {
+        return Math.min(this.rows - 1, Math.max(0, (int) (y / this.cell_size)));
+    }
+
+    private void link(int slot, int c) {
+        this.cell[slot] = c;
+        this.previous[slot] = -1;
+        this.next[slot] = this.head[c];
+
+        if (this.head[c] >= 0) {
+            this.previous[this.head[c]] = slot;
+        }
+        this.head[c] = slot;
+    }
+
+    private void unlink(int slot) {
+        int c = this.cell[slot];
+
+        if (this.previous[slot] >= 0) {
+            this.next[this.previous[slot]] = this.next[slot];
+        } else {
+            this.head[c] = this.next[slot];
+        }
+        if (this.next[slot] >= 0) {
+            this.previous[this.next[slot]] = this.previous[slot];
+        }
+
+        this.cell[slot] = -1;
+    }
+
+}
@@ -0,0 +1,105 @@
+import java.util.Arrays;
+
+public enum Species {
+
+    // Every species in the simulation, the ordinal is the species id stored in the Population columns
+    // Genes are listed in gene slot order (see Genotype)
+    PHYTOPLANKTON("Phytoplankton", Phytoplankton.RADIUS, Phytoplankton.LAMBDA, GeneType.PLIGHT, GeneType.PCO2),
+    ZOOPLANKTON("Zooplankton", Zooplankton.RADIUS, Zooplankton.LAMBDA, GeneType.RO2, GeneType.RTEMP),
+    CRUSTACEAN("Crustacean", Crustacean.RADIUS, Crustacean.LAMBDA, GeneType.RO2, GeneType.RTEMP);
+
+    // Every species by id, values() copies the array on every call
+    private static final Species[] BY_ID = values();
+
+    // Name used as the key in analytics (e.g. getOrganismFrequency("Phytoplankton"))
+    private final String name;
+    // How much space the organism takes within the zone
+    private final int radius;
+    // Survival threshold every gene of the species must pass (see Organism.survival)
+    private final double lambda;
+    // Gene held in every gene slot of the packed genotype, and the slot of every gene type (-1 if not carried)
+    private final GeneType[] genes;
+    private final int[] slots = new int[GeneType.values().length];
+
+    Species(String name, int radius, double lambda, GeneType... genes) {
+        this.name = name;
+        this.radius = radius;
+        this.lambda = lambda;
+        this.genes = genes;
+
+        Arrays.fill(this.slots, -1);
+        for (int slot = 0; slot < genes.length; slot++) {
+            this.slots[genes[slot].ordinal()] = slot;
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getRadius() {
+        return this.radius;
+    }
+
+    public double getLambda() {
+        return this.lambda;
+    }
+
+    public GeneType[] getGenes() {
+        /*
+        @return gene type of every gene slot, shared array so it must not be modified
+         */
+
+        return this.genes;
+    }
+
+    public int slotOf(GeneType type) {
+        /*
+        @return gene slot holding the gene type, -1 if the species does not carry it
+         */
+
+        return this.slots[type.ordinal()];
+    }
+
+    public Organism create(AlleleRegistry alleles, long genotype) {
+        /*
+        Makes an organism of this species, e.g. an offspring staged in a BirthBuffer
+
+        @param  alleles - registry the genotype's alleles are interned in
+        @param  genotype - packed genotype (see Genotype)
+         */
+
+        switch (this) {
+            case PHYTOPLANKTON: return new Phytoplankton(alleles, genotype);
+            case ZOOPLANKTON: return new Zooplankton(alleles, genotype);
+            default: return new Crustacean(alleles, genotype);
+        }
+    }
+
+    public static Species byId(int id) {
+        /*
+        @param  id - species id, as stored in the Population columns
+        @return the species with that ordinal
+         */
+
+        return BY_ID[id];
+    }
+
+    public static Species byName(String name) {
+        /*
+        Looks a species up by its analytics name
+
+        @param  name - e.g. "Phytoplankton"
+        @return the matching species
+         */
+
+        for (Species species : values()) {
+            if (species.name.equals(name)) {
+                return species;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown species: " + name);
+    }
+
+}
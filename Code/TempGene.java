@@ -1,32 +1,31 @@
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class TempGene extends Gene {
 
-    // Max range [-x,x] with which to generate random mutation amount
-    public final double mutation_amount = 0.07;
-
     public TempGene(double init_value, boolean dominance) {
         super(init_value, dominance);
     }
 
+    public TempGene(double value, boolean dominance, long id) {
+        super(value, dominance, id);
+    }
+
+    @Override
+    public GeneType getType() {
+        return GeneType.RTEMP;
+    }
+
     @Override
-    public void mutation() {
+    public void mutation(SplittableRandom random) {
         /*
         Mutation function for the gene, which will add a random displacement from the original value below or above it
-        Will change the field variable value with new value
-         */
-
-        // generation new Random object
-        Random r = new Random();
+        Will change the field variable value with new value (alleles held by organisms are never changed in place,
+        see AlleleRegistry.mutate)
 
-        // keep generating new values while the new values are out of the range of the value for the function to work
-        double new_value = 0;
-        do {
-            double degree = -mutation_amount + (mutation_amount - (-mutation_amount)) * r.nextDouble();
-            new_value = this.value + degree;
-        } while(new_value < 0.1 || new_value > 1.0);
+        @param  random - random stream of the zone the mutation happens in
+         */
 
-        this.value = new_value;
+        this.value = getType().mutate(this.value, random);
     }
 
     @Override
@@ -37,12 +36,6 @@ public class TempGene extends Gene {
         @param  abiotic_factor - the x value for the function fetched from the ecosystem
          */
 
-        double theta = this.value;
-
-        // logistic function (see documentation)
-        double fitness = 1/(1 + Math.exp(-theta*abiotic_factor));
-
-        return fitness;
+        return getType().fitness(this.value, abiotic_factor);
     }
-
 }
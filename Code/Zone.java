@@ -1,65 +1,91 @@
-import com.sun.org.apache.xpath.internal.operations.Or;
-import org.gicentre.utils.geom.HashGrid;
-
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class Zone {
 
-    // HashGrid structure will store all organisms spatially for the simulation
-    // Species Map will store every species in a Map entry with a list of all organisms of that species in the Zone
-    // When organisms are born and die both data structures MUST be concurrent (each serves a different purpose)
-    private HashGrid<Organism> organismHashGrid;
-    private Map<String, List<Organism>> species;
+    // Single columnar store holding every organism in the Zone, births and deaths only ever touch this
+    // Species views (population.view) and the spatial index (population.grid) are both kept by it
+    private Population population;
+
+    // Interned alleles of every organism in the Zone, chromosomes hold indices into it
+    private AlleleRegistry alleles;
+    // Analytics kept up to date on every birth and death, so reading them never scans the population
+    private ZoneStatistics statistics = new ZoneStatistics();
+    // Offspring of this tick's mating, waiting to join the population store at the end of the tick
+    private BirthBuffer births = new BirthBuffer();
+
+    // All abiotic factors limited between -5 and 5 once mapped, raw value of each factor indexed by AbioticFactor ordinal
+    private double[] abiotic_factors = new double[AbioticFactor.values().length];
+    // Mapped value of each factor, kept up to date whenever a raw factor changes so snapshots never recompute it
+    private double[] mapped_factors = new double[AbioticFactor.values().length];
+
+    // Predation never takes a prey species to this many organisms or fewer
+    public static final int PREY_MINIMUM = 10;
+
+    // Zones at least this large live in rounds of partitions (see liveInRounds), smaller zones live one organism at a time
+    public static final int PARTITIONED_LIVE_THRESHOLD = 8192;
+    // Organisms per partition, and partitions per round, of a partitioned live phase
+    public static final int LIVE_PARTITION_SIZE = 512;
+    public static final int LIVE_ROUND_PARTITIONS = 16;
+
+    // Slots per partition of the movement phase, zones at least twice as large move on the pool if there is one
+    public static final int MOVE_PARTITION_SIZE = 16384;
+
+    // Random stream of this zone, every random draw made while stepping the zone comes from here
+    // Only ever used by the one thread stepping the zone, so zones stepped in parallel never contend for it
+    private final SplittableRandom random;
+
+    // Pool the partitions of a large live phase run on, null runs them on the calling thread
+    private ForkJoinPool pool;
+    // Slot of every organism in species order, where every species ends in it, and the fitness of every organism's
+    // life process gene, reused by every partitioned live phase
+    private int[] live_slots = new int[0];
+    private int[] live_species_end = new int[Species.values().length];
+    private double[] live_fitness = new double[0];
+    // Survival mask of a batch of organisms (see FitnessKernel), by position, reused by selection and live phases
+    private boolean[] alive = new boolean[0];
+
+    public Zone (List<Organism> organisms, AlleleRegistry alleles, double light, double co2, double o2, double temp,
+                 int width, int height, int radius, int namespace) {
+        /*
+        Constructor for Zone with a randomly seeded random stream, runs are not reproducible
+         */
 
-    // All abiotic factors limited between -5 and 5, Map of each factor along with value
-    private Map<String, Double> abiotic_factors = new HashMap<>();
+        this(organisms, alleles, light, co2, o2, temp, width, height, radius, namespace, new SplittableRandom());
+    }
 
-    public Zone (List<Organism> organisms, double light, double co2, double o2, double temp, int width, int height, int radius) {
+    public Zone (List<Organism> organisms, AlleleRegistry alleles, double light, double co2, double o2, double temp,
+                 int width, int height, int radius, int namespace, SplittableRandom random) {
         /*
         Constructor for Zone. Will take params of all abiotic values and spatial data relating to the Zone
 
-        @param  light, co2, o2 and temp - initial abiotic factors for this zone, to be stored in a Map
-        @param  width, height and radius - variables for height and width of zone (collision boundaries) for HashGrid
+        @param  organisms - initial population, its chromosomes hold alleles interned in the given registry
+        @param  alleles - allele registry of the zone
+        @param  light, co2, o2 and temp - initial abiotic factors for this zone, to be stored by AbioticFactor
+        @param  width, height and radius - variables for height and width of zone (collision boundaries) and the spatial index
+        @param  namespace - id namespace of the zone's organisms, its index in the Biome, so ids only depend on the run
+        @param  random - random stream of the zone, split from the run seed so the same seed replays the same run
          */
 
-        // abiotic variables (initial)
-        Double light_intensity = light;
-        Double co2_level = co2;
-        Double o2_level = o2;
-        Double temp_level = temp;
+        this.random = random;
+        this.alleles = alleles;
 
-        // Make map of abiotic factors
-        // This map will store the raw abiotic factor, but in use within genes it is mapped to abiotic logistic function by getMappedAbiotic()
+        // Store the initial abiotic factors
+        // This array will store the raw abiotic factor, but in use within genes it is mapped to abiotic logistic function by getAbioticSnapshot()
         // see documentation for more information
-        this.abiotic_factors.put("light_intensity", light_intensity);
-        this.abiotic_factors.put("co2", co2_level);
-        this.abiotic_factors.put("o2", o2_level);
-        this.abiotic_factors.put("temp", temp_level);
-
-        // HashGrid for all organisms, given collision boundaries for organisms movement and radius for each organism
-        this.organismHashGrid = new HashGrid<Organism>(width, height, radius+1);
-        this.organismHashGrid.addAll(organisms);
+        setAbiotic(AbioticFactor.LIGHT_INTENSITY, light);
+        setAbiotic(AbioticFactor.CO2, co2);
+        setAbiotic(AbioticFactor.O2, o2);
+        setAbiotic(AbioticFactor.TEMP, temp);
 
-        // Make species map
-        this.species = new HashMap<>();
-        this.species.put("Phytoplankton", new ArrayList<Organism>());
-        this.species.put("Zooplankton", new ArrayList<Organism>());
-        this.species.put("Crustacean", new ArrayList<Organism>());
+        // Population store, given collision boundaries for organisms movement
+        // and the cell size of its spatial index, based on the radius for each organism
+        this.population = new Population(width, height, radius+1, namespace);
 
-
-        // Sort through organisms, assigning them their respective species and making the species map
+        // Add every organism to the store, its species view is derived from its species id
         for ( Iterator<Organism> iter = organisms.listIterator(); iter.hasNext(); ) {
-            Organism organism = iter.next();
-            if (organism instanceof Phytoplankton) {
-                List<Organism> species_list = this.species.get("Phytoplankton");
-                species_list.add(organism);
-            } else if (organism instanceof Zooplankton) {
-                List<Organism> species_list = this.species.get("Zooplankton");
-                species_list.add(organism);
-            } else if (organism instanceof Crustacean) {
-                List<Organism> species_list = this.species.get("Crustacean");
-                species_list.add(organism);
-            }
+            addOrganism(iter.next());
         }
     }
 
@@ -67,29 +93,37 @@ public class Zone {
     public void selection() {
         /*
         Selection function
-        Iterates through species list, if an organism does not survival remove it
+        Iterates through each species view, if an organism does not survival remove it
+        Survival of a whole species is evaluated in one pass by the FitnessKernel before anybody is removed
          */
 
-        // iterate through organisms list of every species and check survival
-        Iterator species = this.species.entrySet().iterator();
-        while (species.hasNext()) {
+        // abiotic factors do not change during selection, map them once for the whole phase
+        AbioticSnapshot abiotic = getAbioticSnapshot();
 
-            Map.Entry<String, List<Organism>> next_species = (Map.Entry) species.next();
-            List<Organism> species_population = next_species.getValue();
+        // iterate through organisms of every species and check survival
+        for (Species species : Species.values()) {
 
+            int species_size = this.population.size(species);
+            if (this.alive.length < species_size) {
+                this.alive = new boolean[species_size];
+            }
 
-            double before_pop = species_population.size();
+            GeneType[] genes = species.getGenes();
+            FitnessKernel.get().survival(this.population.theta[0], this.population.theta[1],
+                    this.population.slots(species), 0, species_size,
+                    abiotic.get(genes[0].getFactor()), abiotic.get(genes[1].getFactor()), species.getLambda(), this.alive);
 
-            // iterate though each organism in species list
-            for (Iterator<Organism> iter = species_population.listIterator(); iter.hasNext(); ) {
-                Organism organism = iter.next();
+            // iterate though each organism of the species, removal moves the last member into the current position
+            int i = 0;
+            while (i < this.population.size(species)) {
 
                 // cap the population size to prevent extinction - only species five organisms can be selected
-                if ( (!organism.survival(getMappedAbioticAll())) && (species_population.size() > 5) ) {
-
-                    // to avoid ConcurrentModificationException do iter.remove()
-                    iter.remove();
-                    removeOrganism(next_species.getKey(), organism);
+                if ( (!this.alive[i]) && (this.population.size(species) > 5) ) {
+                    // the survival of the moved member moves with it
+                    this.alive[i] = this.alive[this.population.size(species) - 1];
+                    removeOrganism(this.population.get(species, i));
+                } else {
+                    i++;
                 }
             }
         }
@@ -98,55 +132,100 @@ public class Zone {
     public void mating() {
         /*
         Mating function
-        Iterates through species list, selecting a random mating pool and dividing into maternal and paternal populations
+        Iterates through each species view, selecting a random mating pool and dividing into maternal and paternal populations
         Each parent population iterated through concurrently, paired up to mate
-        All offspring added to global zone population for that species
+        Offspring are staged in the birth buffer and only join the zone at the end of the tick (see applyBirths)
          */
 
-        // Iterate through species Map
-        Iterator species = this.species.entrySet().iterator();
-        while (species.hasNext()) {
-
-            // extract every species with list with organisms
-            Map.Entry<String, List<Organism>> next_species = (Map.Entry) species.next();
-            List<Organism> species_population = next_species.getValue();
+        for (Species species : Species.values()) {
 
-            double before_pop = species_population.size();
+            int species_size = this.population.size(species);
 
             // mate on population as long as there is at least two parents
-            if (species_population.size() > 1) {
+            if (species_size > 1) {
 
                 // select random mating pool up the population size, keep looping until an even number is found
                 int mating_size;
                 do {
-                    mating_size = 2 + (int) (Math.random() * species_population.size() - 1);
+                    mating_size = 2 + (int) (this.random.nextDouble() * species_size - 1);
                 } while (mating_size % 2 != 0);
 
-                // make mating population as sublist of main one and shuffle
-                List<Organism> mating_population = new ArrayList<Organism>(species_population.subList(0, mating_size));
-                Collections.shuffle(mating_population);
+                // fathers are the first half of the mating pool and mothers the second half
+                // offspring are only staged, so the species view does not change while the pool is mated
+                int half = mating_size / 2;
+                for (int i = 0; i < half; i++) {
 
-                // make lists of maternal and paternal populations
-                List<Organism> fathers = new ArrayList<>(species_population.subList(0, mating_population.size() / 2));
-                List<Organism> mothers = new ArrayList<>(species_population.subList(mating_population.size() / 2, mating_population.size()));
+                    Organism father = this.population.get(species, i);
+                    Organism mother = this.population.get(species, half + i);
 
-                // iterate through both populations
-                Iterator<Organism> it1 = fathers.iterator();
-                Iterator<Organism> it2 = mothers.iterator();
+                    // cross over the whole litter, then give every offspring a random location and direction
+                    int first = this.births.size();
+                    int litter = mother.litterSize(this.random);
+                    for (int child = 0; child < litter; child++) {
+                        this.births.stage(species, mother.crossover(mother.genotype, father.genotype, this.random));
+                    }
+                    for (int child = first; child < this.births.size(); child++) {
+                        int radius = species.getRadius();
+
+                        this.births.x[child] = (float) (radius + this.random.nextDouble() * (this.population.width - 2 * radius));
+                        this.births.y[child] = (float) (radius + this.random.nextDouble() * (this.population.height - 2 * radius));
+                        this.births.dx[child] = (float) (this.random.nextDouble() * 2 - 1);
+                        this.births.dy[child] = (float) (this.random.nextDouble() * 2 - 1);
+                    }
+                }
+            }
+        }
+    }
 
-                while (it1.hasNext() && it2.hasNext()) {
+    public void movement() {
+        /*
+        Movement function
+        Every organism takes one step along its movement vector, bouncing off the zone bounds (see Population.move)
+        Large zones move in partitions of slots on the pool, then the spatial index relinks the organisms that
+        crossed into another cell. Movement draws nothing random, so the outcome never depends on the partitioning
+         */
 
-                    // mate using organism function, adding to all
-                    Organism father = it1.next();
-                    Organism mother = it2.next();
-                    List<Organism> offspring = mother.mate(father);
+        int end = this.population.end();
 
-                    // add to species entry in species map and global HashGrid
-                    species_population.addAll(offspring);
-                    this.organismHashGrid.addAll(offspring);
-                }
+        if (this.pool != null && end >= 2 * MOVE_PARTITION_SIZE) {
+            final MovePartition[] partitions = new MovePartition[(end + MOVE_PARTITION_SIZE - 1) / MOVE_PARTITION_SIZE];
+            for (int p = 0; p < partitions.length; p++) {
+                int start = p * MOVE_PARTITION_SIZE;
+                partitions[p] = new MovePartition(start, Math.min(end, start + MOVE_PARTITION_SIZE));
             }
+
+            this.pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(partitions);
+                }
+            });
+        } else {
+            this.population.move(0, end);
+        }
+
+        this.population.grid.updateAll();
+    }
+
+    public void applyBirths() {
+        /*
+        End of tick, every offspring staged since the last call joins the population store in one append
+        Their alleles are only held (and counted in the analytics) from here on
+         */
+
+        if (this.births.size() == 0) {
+            return;
         }
+
+        int first = this.population.addAll(this.births, this.alleles);
+        for (int slot = first; slot < first + this.births.size(); slot++) {
+            Organism organism = this.population.organisms[slot];
+
+            this.alleles.acquire(organism.getSpecies(), organism.genotype);
+            this.statistics.born(organism);
+        }
+
+        this.births.clear();
     }
 
     public void live() {
@@ -155,140 +234,229 @@ public class Zone {
         All organisms iterated through and considered for life process based on abiotic factor in zone
         If organism cannot perform function (due to fitness below lambda) perform selection (remove from zone (kill))
         Depending on life process, certain amount of abiotic factor depleted and opposite factor augmented
+        Organisms share one snapshot of the abiotic factors, re-taken whenever an adjustment has changed them
          */
 
+        // large zones are split into partitions which can run in parallel
+        if (this.population.size() >= PARTITIONED_LIVE_THRESHOLD) {
+            liveInRounds();
+            return;
+        }
 
-        // iterate though species map
-        Iterator species = this.species.entrySet().iterator();
-        while (species.hasNext()) {
-
-            // iterate through organism list
-            Map.Entry<String, List<Organism>> next_species = (Map.Entry) species.next();
-            List<Organism> species_population = next_species.getValue();
+        // snapshot of the mapped abiotic factors, shared by organisms until adjustments invalidate it
+        AbioticSnapshot abiotic = getAbioticSnapshot();
 
+        // iterate though every species view
+        for (Species species : Species.values()) {
 
-            for (Iterator<Organism> iter = species_population.listIterator(); iter.hasNext(); ) {
-                Organism organism = iter.next();
+            int i = 0;
+            while (i < this.population.size(species)) {
+                Organism organism = this.population.get(species, i);
 
                 // perform life processes, each if clause specific to the the species
                 // the process is only performed if the organism can survive, else it is selected out
                 // selection here will keep a minimum of two species for the sake of preventing extinction
-                if (organism instanceof Phytoplankton) {
+                if (organism.survival(abiotic)) {
 
-                    if (organism.survival(getMappedAbioticAll())) {
-                        double adjustment = ((Phytoplankton) organism).photosynthesis(getMappedAbiotic("co2"));
+                    if (organism instanceof Phytoplankton) {
+                        double adjustment = ((Phytoplankton) organism).photosynthesis(abiotic);
 
                         // photosynthesis occurs - co2 goes down, o2 goes up
-                        adjustAbiotic("co2", -adjustment);
-                        adjustAbiotic("o2", adjustment);
-                    } else {
-                        if ( species_population.size() > 2 ) {
-                            iter.remove();
-                            removeOrganism(next_species.getKey(), organism);
-                        }
+                        adjustAbiotic(AbioticFactor.CO2, -adjustment);
+                        adjustAbiotic(AbioticFactor.O2, adjustment);
                     }
-                }
-                else if (organism instanceof Zooplankton) {
-
-                    if (organism.survival(getMappedAbioticAll())) {
-                        double adjustment = ((Zooplankton) organism).respiration(getMappedAbiotic("o2"));
+                    else if (organism instanceof Zooplankton) {
+                        double adjustment = ((Zooplankton) organism).respiration(abiotic);
 
                         // respiration occurs - o2 goes down, co2 goes up
-                        adjustAbiotic("o2", -adjustment * 2.3);
-                        adjustAbiotic("co2", adjustment);
-                    } else {
-                        if ( species_population.size() > 2 ) {
-                            iter.remove();
-                            removeOrganism(next_species.getKey(), organism);
-                        }
+                        adjustAbiotic(AbioticFactor.O2, -adjustment * 2.3);
+                        adjustAbiotic(AbioticFactor.CO2, adjustment);
                     }
-                }
-                else if (organism instanceof Crustacean) {
-
-                    if (organism.survival(getMappedAbioticAll())) {
-                        double adjustment = ((Crustacean) organism).respiration(getMappedAbiotic("o2"));
+                    else if (organism instanceof Crustacean) {
+                        double adjustment = ((Crustacean) organism).respiration(abiotic);
 
                         // respiration occurs - o2 goes down, co2 goes up
-                        adjustAbiotic("o2", -adjustment * 2.3);
-                        adjustAbiotic("co2", adjustment);
-                    } else {
-                        if ( species_population.size() > 2 ) {
-                            iter.remove();
-                            removeOrganism(next_species.getKey(), organism);
-                        }
+                        adjustAbiotic(AbioticFactor.O2, -adjustment * 2.3);
+                        adjustAbiotic(AbioticFactor.CO2, adjustment);
+                    }
+
+                    // the next organism must see the adjusted factors exactly, as it would without the snapshot
+                    if (!abiotic.matches(this.mapped_factors)) {
+                        abiotic = getAbioticSnapshot();
                     }
+                    i++;
+
+                } else if ( this.population.size(species) > 2 ) {
+                    // removal moves the last member of the species into position i, so do not advance
+                    removeOrganism(organism);
+                } else {
+                    i++;
                 }
             }
         }
     }
 
-    public void predation() {
+    private void liveInRounds() {
         /*
-        Predation function
-        Zooplankton and Crustacean are considered for predation
-        Predation will only occur if the target prey size is large enough to preyed upon
-        A list is returned by the organism object containing a list of all organisms to be removed by preying
+        Living function for large zones, with the same life processes as live()
+        Organisms are visited in the same (species) order, in rounds of LIVE_ROUND_PARTITIONS partitions
+        Every partition of a round sees the snapshot taken at the start of the round and sums its own CO2 and O2
+        adjustments, the sums are then applied partition by partition (in order) so the next round sees them
+        Partitions evaluate survival and life processes with the FitnessKernel, a species at a time
+        Nobody is removed until the end of the phase, so slots stay put while partitions run
+        Partition bounds never depend on the number of threads, so the outcome is the same with or without a pool
          */
 
-        // iterate though species map
-        Iterator species = this.species.entrySet().iterator();
-        while (species.hasNext()) {
+        int size = this.population.size();
+        if (this.live_slots.length < size) {
+            this.live_slots = new int[size];
+            this.live_fitness = new double[size];
+        }
+        if (this.alive.length < size) {
+            this.alive = new boolean[size];
+        }
 
-            // iterate through organism list
-            Map.Entry<String, List<Organism>> next_species = (Map.Entry) species.next();
-            List<Organism> species_population = next_species.getValue();
+        // flatten the species views, the order organisms are visited in
+        int count = 0;
+        for (Species species : Species.values()) {
+            System.arraycopy(this.population.slots(species), 0, this.live_slots, count, this.population.size(species));
+            count += this.population.size(species);
+            this.live_species_end[species.ordinal()] = count;
+        }
 
+        int round_size = LIVE_PARTITION_SIZE * LIVE_ROUND_PARTITIONS;
+        for (int round_start = 0; round_start < size; round_start += round_size) {
 
-            for (Iterator<Organism> iter = species_population.listIterator(); iter.hasNext(); ) {
-                Organism organism = iter.next();
+            final AbioticSnapshot abiotic = getAbioticSnapshot();
+            final int round_end = Math.min(size, round_start + round_size);
 
-                // consider predation for Zooplankton and Cructacean, only predate if a sizable number of prey still alive
-                if (organism instanceof Zooplankton) {
+            // split the round into partitions
+            int partition_count = (round_end - round_start + LIVE_PARTITION_SIZE - 1) / LIVE_PARTITION_SIZE;
+            final LivePartition[] partitions = new LivePartition[partition_count];
+            for (int p = 0; p < partitions.length; p++) {
+                int start = round_start + p * LIVE_PARTITION_SIZE;
+                partitions[p] = new LivePartition(abiotic, start, Math.min(round_end, start + LIVE_PARTITION_SIZE));
+            }
 
-                    // only predate if there are some organisms alive still
-                    if (this.species.get("Phytoplankton").size() > 10) {
-                        removeOrganisms("Phytoplankton", ((Zooplankton) organism).predation(this.species.get("Phytoplankton")));
+            if (this.pool != null) {
+                this.pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(partitions);
                     }
+                });
+            } else {
+                for (LivePartition partition : partitions) {
+                    partition.compute();
+                }
+            }
 
-                } else if (organism instanceof Crustacean) {
-
-                    // only predate if there are some organisms alive still
-                    if (this.species.get("Zooplankton").size() > 10) {
-                        removeOrganisms("Zooplankton", ((Crustacean) organism).predation(this.species.get("Zooplankton")));
-                    }
+            // reduce, in partition order
+            for (LivePartition partition : partitions) {
+                adjustAbiotic(AbioticFactor.CO2, partition.co2);
+                adjustAbiotic(AbioticFactor.O2, partition.o2);
+            }
+        }
 
+        // selection, keeping a minimum of two of every species for the sake of preventing extinction
+        // removal leaves everybody else in their slot, so live_slots stays valid throughout
+        for (int i = 0; i < size; i++) {
+            if (!this.alive[i]) {
+                Organism organism = this.population.organisms[this.live_slots[i]];
+                if (this.population.size(organism.getSpecies()) > 2) {
+                    removeOrganism(organism);
                 }
             }
         }
     }
 
-    public void removeOrganisms(String species, List<Organism> organisms) {
+    public void predation() {
         /*
-        Will remove a list of organisms from BOTH the species map and the organism HashGrid
+        Predation function
+        Zooplankton and Crustacean are considered for predation, as a batch stage per prey species
+        The kill demand of every predator is summed first, then that many victims are drawn without replacement
+        and killed at once, so the cost is O(predators + kills) whatever the size of the prey population
+        Predation will only occur if the target prey size is large enough to preyed upon, and never takes it below that
+         */
+
+        // Zooplankton graze on Phytoplankton
+        predation(Species.ZOOPLANKTON, Species.PHYTOPLANKTON);
+
+        // Crustacean predate on Zooplankton
+        predation(Species.CRUSTACEAN, Species.ZOOPLANKTON);
+    }
+
+    private void predation(Species predator, Species prey) {
+        /*
+        One batch of predation, every predator of the species against every prey of the other
 
-        @param  species - string of the species to remove
-        @param  organisms - list of organisms to remove from both organism storage mechanisms
+        @param  predator - species doing the killing
+        @param  prey - species being killed
          */
 
-        // ensure there is enough of a species of a species to remove still and remove from both storage means
-        if ( this.species.get(species).size() > 0 && this.organismHashGrid.size() > 0 ) {
-            this.species.get(species).removeAll(organisms);
-            this.organismHashGrid.removeAll(organisms);
+        // only predate if a sizable number of prey still alive
+        int prey_size = this.population.size(prey);
+        if (prey_size <= PREY_MINIMUM) {
+            return;
+        }
+
+        // total kill demand of every predator
+        long demand = 0;
+        for (int i = 0; i < this.population.size(predator); i++) {
+            demand += this.population.get(predator, i).predationDemand(this.random);
+        }
+
+        // partial Fisher-Yates over the prey view: removal moves the last member into the victim's position,
+        // so every draw is over the prey not yet killed, and no victim can be drawn twice
+        long kills = Math.min(demand, prey_size - PREY_MINIMUM);
+        for (long k = 0; k < kills; k++) {
+            int victim = (int) (this.random.nextDouble() * this.population.size(prey));
+            removeOrganism(this.population.get(prey, victim));
         }
     }
 
-    public void removeOrganism(String species, Organism organism) {
+    public void addOrganism(Organism organism) {
         /*
-        Will remove a single organism from BOTH the species map and the organism HashGrid
+        Adds an organism to the population store at a random location within the zone, moving in a random direction
 
-        @param  species - string of the species to remove
-        @param  organism -  organisms to remove from both organism storage mechanisms
+        @param  organism - the organism to add
          */
 
-        // ensure there is enough of a species of a species to remove still and remove from both storage means
-        if ( this.organismHashGrid.size() > 0 ) {
-            this.organismHashGrid.remove(organism);
-        }
+        int radius = organism.getSpecies().getRadius();
+
+        float x = (float) (radius + this.random.nextDouble() * (this.population.width - 2 * radius));
+        float y = (float) (radius + this.random.nextDouble() * (this.population.height - 2 * radius));
+        float dx = (float) (this.random.nextDouble() * 2 - 1);
+        float dy = (float) (this.random.nextDouble() * 2 - 1);
+
+        this.population.add(organism, x, y, dx, dy);
+
+        // the organism now holds its alleles
+        this.alleles.acquire(organism.getSpecies(), organism.genotype);
+        this.statistics.born(organism);
+    }
+
+    public void compact() {
+        /*
+        End of tick housekeeping, closes the gaps deaths have left in the population store (see Population.compact)
+        Organisms only change slot here, never during a phase
+         */
+
+        this.population.compact();
+    }
+
+    public void removeOrganism(Organism organism) {
+        /*
+        Will remove a single organism from the population store in O(1), its slot is left as a tombstone
+
+        @param  organism -  organism to remove
+         */
+
+        this.population.remove(organism.slot);
+        this.statistics.died(organism);
+
+        // alleles no longer held by anybody are reclaimed
+        this.alleles.release(organism.getSpecies(), organism.genotype);
     }
 
     public double getOrganismFrequency(String species) {
@@ -299,51 +467,42 @@ public class Zone {
         @return return the size of the species
          */
 
-        return this.species.get(species).size();
+        return this.statistics.getSpeciesTotal(Species.byName(species));
     }
 
-    public double getMappedAbiotic(String factor) {
+    public double getMappedAbiotic(AbioticFactor factor) {
         /*
-        The function will take the raw abiotic factor stored in the Map and put it through the constraining function
+        The function will take the raw abiotic factor and put it through the constraining function
         This constrains the abiotic factor to the domain of the gene function
 
-        @param  factor - which factor to extract from the abiotic map
+        @param  factor - which factor to map
         @return mapped_factor - return the factor mapped through the constraining function
          */
 
-        double theta = -0.2;
-
-        // calculate the new factor by adding it to the existing one
-        double mapped_factor = 10 / (1 + Math.exp( theta * this.abiotic_factors.get(factor) ) );
-        // translate the curve -5 so it fits the range for the genes
-
-        mapped_factor -= 5;
-
-        return mapped_factor;
+        return this.mapped_factors[factor.ordinal()];
     }
 
-    public Map<String, Double> getMappedAbioticAll() {
+    public AbioticSnapshot getAbioticSnapshot() {
         /*
-        The function will take each raw abiotic factor stored in the Map and put them through the constraining function
-        This constrains the abiotic factors to the domain of the gene function
+        Immutable snapshot of every abiotic factor mapped through the constraining function
+        The mapped values are already cached, so taking a snapshot does no exponentials
 
-        @return mapped_factor - return the factor mapped through the constraining function
+        @return snapshot of all mapped factors
          */
 
-        // make a new map for mapped factors
-        Map<String, Double> mapped_factors = new HashMap<>();
-
-        Iterator factor = this.abiotic_factors.entrySet().iterator();
-        while (factor.hasNext()) {
+        return new AbioticSnapshot(this.mapped_factors);
+    }
 
-            Map.Entry<String, Double> next_factor = (Map.Entry) factor.next();
-            mapped_factors.put(next_factor.getKey(), getMappedAbiotic(next_factor.getKey()));
-        }
+    private void setAbiotic(AbioticFactor factor, double value) {
+        /*
+        Every change to a raw factor goes through here, so the mapped value is remapped (one exponential) with it
+         */
 
-        return mapped_factors;
+        this.abiotic_factors[factor.ordinal()] = value;
+        this.mapped_factors[factor.ordinal()] = AbioticSnapshot.map(value);
     }
 
-    public void adjustAbiotic(String factor, double amount) {
+    public void adjustAbiotic(AbioticFactor factor, double amount) {
         /*
         Adjustment of an abiotic factor takes place here, where it is prevented from going below a bound
 
@@ -352,13 +511,13 @@ public class Zone {
          */
 
         // adjust factor externally before adding
-        double adjustment = this.abiotic_factors.get(factor) + amount;
+        double adjustment = this.abiotic_factors[factor.ordinal()] + amount;
 
         // ensure the lower bound is not broken out of
         if (adjustment > -10) {
-            this.abiotic_factors.put(factor, adjustment);
+            setAbiotic(factor, adjustment);
         } else {
-            this.abiotic_factors.put(factor, -3.0);
+            setAbiotic(factor, -3.0);
         }
     }
 
@@ -366,79 +525,48 @@ public class Zone {
         /*
         This function is called every time step to add some co2 to each zone.
          */
-        this.abiotic_factors.put("co2", this.abiotic_factors.get("co2") + 50);
+        setAbiotic(AbioticFactor.CO2, this.abiotic_factors[AbioticFactor.CO2.ordinal()] + 50);
+    }
+
+    public double getAbiotic(AbioticFactor factor) {
+        return this.abiotic_factors[factor.ordinal()];
     }
 
     public double getLightIntensity() {
-        return (double) this.abiotic_factors.get("light_intensity");
+        return this.abiotic_factors[AbioticFactor.LIGHT_INTENSITY.ordinal()];
     }
 
     public double getCo2() {
-        return (double) this.abiotic_factors.get("co2");
+        return this.abiotic_factors[AbioticFactor.CO2.ordinal()];
     }
 
     public double geto2() {
-        return (double) this.abiotic_factors.get("o2");
+        return this.abiotic_factors[AbioticFactor.O2.ordinal()];
     }
 
-    public double getTemp() { return (double) this.abiotic_factors.get("temp"); }
+    public double getTemp() { return this.abiotic_factors[AbioticFactor.TEMP.ordinal()]; }
 
     public Map<String, Map<Gene, Integer>> getGenes() {
         /*
         This function will return a Map containing all the genes in the zone
         Each entry will contain a Map in itself which contains the frequency of each gene
+        Frequencies are the allele counts kept by the registry, so no organism is visited
          */
 
         // make a new map ready to collect information
         Map<String, Map<Gene, Integer>> genes = new HashMap<>();
-        genes.put("Plight", new HashMap<Gene, Integer>());
-        genes.put("Pco2", new HashMap<Gene, Integer>());
-        genes.put("Ro2", new HashMap<Gene, Integer>());
-        genes.put("Rtemp", new HashMap<Gene, Integer>());
-
-        // iterate through the species to extract each gene
-        Iterator species = this.species.entrySet().iterator();
-        while (species.hasNext()) {
-
-            // for each species
-            Map.Entry<String, List<Organism>> next_species = (Map.Entry) species.next();
-            List<Organism> species_population = next_species.getValue();
-
-            // iterate through the population list
-            for (Iterator<Organism> iter = species_population.listIterator(); iter.hasNext(); ) {
-                Organism organism = iter.next();
-
-                // iterate through the gene map to look for each gene and add it to the map along with +1 frequency
-                Iterator gene_names = genes.entrySet().iterator();
-                while (gene_names.hasNext()) {
-
-                    // for each type
-                    Map.Entry<String, HashMap<Gene, Integer>> gene_type = (Map.Entry) gene_names.next();
-                    Map<Gene, Integer> gene_frequencies = gene_type.getValue();
-
-                    // check if we found the gene by looking at the genotype and checking if the gene is in there
-                    if (organism.getGenotype().containsKey(gene_type.getKey())) {
-
-                        // we will have two copies of this gene, so we need to identify each one and add them
-                        Chromosome org_chromosome = (Chromosome) organism.getGenotype().get(gene_type.getKey());
-                        Gene allele_a = org_chromosome.getAllele_a();
-                        Gene allele_b = org_chromosome.getAllele_b();
-
-                        // if we have not added it yet make the new gene in the map, else add
-                        if (!gene_frequencies.containsKey(allele_a)) {
-                            gene_frequencies.put(allele_a, 0);
-                        } else {
-                            gene_frequencies.put(allele_a, gene_frequencies.get(allele_a) + 1);
-                        }
-
-                        if (!gene_frequencies.containsKey(allele_b)) {
-                            gene_frequencies.put(allele_b, 0);
-                        } else {
-                            gene_frequencies.put(allele_b, gene_frequencies.get(allele_b) + 1);
-                        }
-                    }
+
+        for (GeneType type : GeneType.values()) {
+            Map<Gene, Integer> gene_frequencies = new HashMap<Gene, Integer>();
+
+            // every allele still held by an organism, with the number of chromosome copies holding it
+            for (int index = 0; index < this.alleles.size(type); index++) {
+                if (this.alleles.isLive(type, index) && this.alleles.refs(type, index) > 0) {
+                    gene_frequencies.put(this.alleles.gene(type, index), this.alleles.refs(type, index));
                 }
             }
+
+            genes.put(type.getName(), gene_frequencies);
         }
 
         // return our new map of gene frequencies
@@ -449,72 +577,15 @@ public class Zone {
     public Map<String, Integer> getAllelicFrequencies() {
         /*
         This function returns the frequency of all the different chromosomal pair types in the zone
+        The pairs can be Homozygous Dominant, Heterozygous or Homozygous Recessive, counted as organisms are born and die
          */
 
-        // make a map of all pairs
-        // the pairs can be Homozygous Dominant, Heterozygous or Homozygous Recessive
-        // each gene will have a feature of the list above (unless the pair is extinct)
-        // we iterate through the genes to find them
+        // make a map of all pairs, e.g. "Plight_hom_dom"
         Map<String, Integer> pairs = new HashMap<>();
-        pairs.put("Plight_hom_dom", 0);
-        pairs.put("Plight_het_dom", 0);
-        pairs.put("Plight_hom_rec", 0);
-        pairs.put("Pco2_hom_dom", 0);
-        pairs.put("Pco2_het_dom", 0);
-        pairs.put("Pco2_hom_rec", 0);
-        pairs.put("Ro2_hom_dom", 0);
-        pairs.put("Ro2_het_dom", 0);
-        pairs.put("Ro2_hom_rec", 0);
-        pairs.put("Rtemp_hom_dom", 0);
-        pairs.put("Rtemp_het_dom", 0);
-        pairs.put("Rtemp_hom_rec", 0);
-
-        // iterate through all organisms for this collection
-        for (Organism organism : organismHashGrid) {
-
-            // the following code will extract all chromosomes and check for their property
-            // it will increment the respective value in the return map when found
-
-            // if an organism is Phytoplankton it will only contain the Plight and Pco2 genes, look for them here
-            if (organism instanceof Phytoplankton) {
-                Chromosome org_chromosome = (Chromosome) organism.getGenotype().get("Plight");
-                if (org_chromosome.isHomoDominant()) {
-                    pairs.put("Plight_hom_dom", pairs.get("Plight_hom_dom") + 1);
-                } else if (org_chromosome.isHomoRecessive()) {
-                    pairs.put("Plight_hom_rec", pairs.get("Plight_hom_rec") + 1);
-                } else if (org_chromosome.isHetDominant()) {
-                    pairs.put("Plight_het_dom", pairs.get("Plight_het_dom") + 1);
-                }
-
-                org_chromosome = (Chromosome) organism.getGenotype().get("Pco2");
-                if (org_chromosome.isHomoDominant()) {
-                    pairs.put("Pco2_hom_dom", pairs.get("Pco2_hom_dom") + 1);
-                } else if (org_chromosome.isHomoRecessive()) {
-                    pairs.put("Pco2_hom_rec", pairs.get("Pco2_hom_rec") + 1);
-                } else if (org_chromosome.isHetDominant()) {
-                    pairs.put("Pco2_het_dom", pairs.get("Pco2_het_dom") + 1);
-                }
-            }
-
-            // if an organism is a consumer it will have the Ro2 and Rtemp genes, so look here
-            if (organism instanceof Zooplankton || organism instanceof Crustacean) {
-                Chromosome org_chromosome = (Chromosome) organism.getGenotype().get("Ro2");
-                if (org_chromosome.isHomoDominant()) {
-                    pairs.put("Ro2_hom_dom", pairs.get("Ro2_hom_dom") + 1);
-                } else if (org_chromosome.isHomoRecessive()) {
-                    pairs.put("Ro2_hom_rec", pairs.get("Ro2_hom_rec") + 1);
-                } else if (org_chromosome.isHetDominant()) {
-                    pairs.put("Ro2_het_dom", pairs.get("Ro2_het_dom") + 1);
-                }
-
-                org_chromosome = (Chromosome) organism.getGenotype().get("Rtemp");
-                if (org_chromosome.isHomoDominant()) {
-                    pairs.put("Rtemp_hom_dom", pairs.get("Rtemp_hom_dom") + 1);
-                } else if (org_chromosome.isHomoRecessive()) {
-                    pairs.put("Rtemp_hom_rec", pairs.get("Rtemp_hom_rec") + 1);
-                } else if (org_chromosome.isHetDominant()) {
-                    pairs.put("Rtemp_het_dom", pairs.get("Rtemp_het_dom") + 1);
-                }
+        for (GeneType type : GeneType.values()) {
+            for (int zygosity = 0; zygosity < ZoneStatistics.ZYGOSITY_NAMES.length; zygosity++) {
+                pairs.put(type.getName() + "_" + ZoneStatistics.ZYGOSITY_NAMES[zygosity],
+                        this.statistics.getZygosityCount(type, zygosity));
             }
         }
 
@@ -524,68 +595,162 @@ public class Zone {
 
     public List<Organism> getOrganisms() {
         /*
-        This function will simply return a list of all organisms in the zone by iterating through the species map
+        This function will simply return a list of all organisms in the zone by iterating through the species views
          */
 
-        List<Organism> all_organisms = new ArrayList<>();
+        List<Organism> all_organisms = new ArrayList<>(this.population.size());
 
-        // iterate through species map and concatenate all lists to make one central one
-        for(Map.Entry<String, List<Organism>> entry : this.species.entrySet()) {
-            List<Organism> next_species = entry.getValue();
-            for (Iterator<Organism> iter = next_species.listIterator(); iter.hasNext(); ) {
-                Organism organism = iter.next();
-                all_organisms.add(organism);
-            }
+        // iterate through species views and concatenate all lists to make one central one
+        for (Species species : Species.values()) {
+            all_organisms.addAll(this.population.view(species));
         }
 
         return all_organisms;
     }
 
+    public void setPool(ForkJoinPool pool) {
+        /*
+        @param  pool - pool the partitions of a large live phase run on, null to run them on the calling thread
+         */
+
+        this.pool = pool;
+    }
+
     public int getTotalPopulation() {
         /*
-        Gets the total population size by iterating through the species map and concatenating the population size
+        Gets the total population size, the number of occupied slots in the population store
          */
 
-        int total_size = 0;
-        Iterator species = this.species.entrySet().iterator();
-        while (species.hasNext()) {
-            Map.Entry<String, List<Organism>> next_species = (Map.Entry) species.next();
-            total_size += next_species.getValue().size();
-        }
+        return this.population.size();
+    }
+
+    public SpatialHash getSpatialHash() {
+        /*
+        The spatial index of the population store, always up to date (see SpatialHash)
+         */
+
+        return this.population.grid;
+    }
+
+    public ZoneStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    public AlleleRegistry getAlleles() {
+        return this.alleles;
+    }
 
-        return total_size;
+    public Population getPopulation() {
+        return this.population;
     }
 
-    public HashGrid<Organism> getOrganismHashGrid() {
-        return this.organismHashGrid;
+    public List<Organism> getSpecies(Species species) {
+        return this.population.view(species);
     }
 
     public double getAvgGeneValue(String gene) {
+        /*
+        Average value of the dominant allele of a gene over every organism carrying it
+
+        @param  gene - name of the gene, e.g. "Pco2"
+         */
 
-        List<Double> values = new ArrayList<>();
-        List<Organism> organisms = getOrganisms();
+        return this.statistics.getMeanValue(GeneType.byName(gene));
+    }
 
-        for (Iterator<Organism> iter = organisms.listIterator(); iter.hasNext(); ) {
-            Organism organism = iter.next();
+    private class MovePartition extends RecursiveAction {
 
-            if (organism instanceof Phytoplankton) {
-                Chromosome chromosome = (Chromosome) organism.getGenotype().get(gene);
-                Gene geneobj = (Gene) chromosome.getDominant();
+        /*
+        One partition of the movement phase, moves slots [start, end) and writes nothing else
+         */
 
-                values.add(geneobj.getValue());
-            }
+        // RecursiveAction is Serializable, partitions are never serialized
+        private static final long serialVersionUID = 1L;
+
+        private final int start, end;
+
+        MovePartition(int start, int end) {
+            this.start = start;
+            this.end = end;
         }
 
-        double avg = 0;
-        double sum = 0;
+        @Override
+        protected void compute() {
+            Zone.this.population.move(this.start, this.end);
+        }
+    }
+
+    private class LivePartition extends RecursiveAction {
 
-        for (int i=0; i<values.size(); i++) {
-            sum += values.get(i);
+        /*
+        One partition of a round of liveInRounds(), visits live_slots[start, end) against one snapshot
+        Only writes the energy of its own organisms, its own positions of alive and live_fitness and its own sums
+         */
+
+        // RecursiveAction is Serializable, partitions are never serialized
+        private static final long serialVersionUID = 1L;
+
+        private final AbioticSnapshot abiotic;
+        private final int start, end;
+
+        // CO2 and O2 adjustments of every organism in the partition
+        double co2 = 0, o2 = 0;
+
+        LivePartition(AbioticSnapshot abiotic, int start, int end) {
+            this.abiotic = abiotic;
+            this.start = start;
+            this.end = end;
         }
 
-        avg = sum / values.size();
+        @Override
+        protected void compute() {
+            Population population = Zone.this.population;
+            FitnessKernel kernel = FitnessKernel.get();
+
+            // the partition may span the end of one species view and the start of the next
+            int species_start = 0;
+            for (Species species : Species.values()) {
+                int species_end = Zone.this.live_species_end[species.ordinal()];
+                int from = Math.max(this.start, species_start);
+                int to = Math.min(this.end, species_end);
+                species_start = species_end;
+
+                if (from >= to) {
+                    continue;
+                }
+
+                GeneType[] genes = species.getGenes();
+                kernel.survival(population.theta[0], population.theta[1], Zone.this.live_slots, from, to,
+                        this.abiotic.get(genes[0].getFactor()), this.abiotic.get(genes[1].getFactor()),
+                        species.getLambda(), Zone.this.alive);
 
-        return avg;
+                // Phytoplankton photosynthesise (Pco2), Zooplankton and Crustacean respire (Ro2)
+                boolean photosynthesis = species == Species.PHYTOPLANKTON;
+                GeneType process = photosynthesis ? GeneType.PCO2 : GeneType.RO2;
+                kernel.fitness(population.theta[species.slotOf(process)], Zone.this.live_slots, from, to,
+                        this.abiotic.get(process.getFactor()), Zone.this.live_fitness);
+
+                for (int i = from; i < to; i++) {
+                    if (!Zone.this.alive[i]) {
+                        continue;
+                    }
+
+                    // the performance of the process becomes the organism's energy, as in photosynthesis() and respiration()
+                    double adjustment = Zone.this.live_fitness[i];
+                    population.energy[Zone.this.live_slots[i]] = adjustment;
+
+                    if (photosynthesis) {
+                        // photosynthesis occurs - co2 goes down, o2 goes up
+                        this.co2 -= adjustment;
+                        this.o2 += adjustment;
+                    } else {
+                        // respiration occurs - o2 goes down, co2 goes up
+                        this.o2 -= adjustment * 2.3;
+                        this.co2 += adjustment;
+                    }
+                }
+            }
+        }
     }
 
 }
@@ -0,0 +1,134 @@
+import java.util.*;
+
+public class ZoneSnapshot {
+
+    /*
+    Copy of everything the front end shows of one zone, taken between ticks by the simulation thread
+    Organisms are only a location and a species id here, in primitive arrays reused from one capture to the next
+    They are stored cell by cell of the zone's SpatialHash, along with how many of every species each cell holds, so
+    the front end can cull them to what is on screen and draw densities without going through every organism
+    The front end reads it on its own thread while the zone itself carries on changing, so nothing in here may refer
+    back to the zone's live state
+     */
+
+    // Location and species id (Species ordinal) of every organism, entries [0, size) are valid
+    public float[] x = new float[0];
+    public float[] y = new float[0];
+    public byte[] species = new byte[0];
+    public int size = 0;
+
+    // Cells of the zone's SpatialHash: organisms of cell c are entries [cell_start[c], cell_start[c + 1])
+    public int columns = 0, rows = 0;
+    public float cell_size = 1;
+    public int[] cell_start = new int[1];
+
+    // Number of organisms of every species in every cell, at [species * columns * rows + cell]
+    public int[] density = new int[0];
+
+    // Next free entry of every cell while capturing
+    private int[] cursor = new int[0];
+
+    // Raw abiotic factors of the zone
+    public double co2, o2, light_intensity, temp;
+
+    // Number of organisms of every species, by Species ordinal
+    public int[] species_totals = new int[Species.values().length];
+
+    // Every allele held in the zone (see Zone.getGenes), by GeneType ordinal: entries [0, allele_size[type]) of the
+    // id, value, dominance and frequency (chromosome copies holding it) arrays are valid, copied from the zone's
+    // AlleleRegistry into arrays reused from one capture to the next
+    public int[] allele_size = new int[GeneType.values().length];
+    public long[][] allele_id = new long[GeneType.values().length][0];
+    public double[][] allele_value = new double[GeneType.values().length][0];
+    public boolean[][] allele_dominant = new boolean[GeneType.values().length][0];
+    public int[][] allele_frequency = new int[GeneType.values().length][0];
+
+    public void capture(Zone zone) {
+        /*
+        Overwrites the snapshot with the current state of a zone, only called between ticks
+
+        @param  zone - zone to copy
+         */
+
+        Population population = zone.getPopulation();
+
+        if (this.x.length < population.size()) {
+            int capacity = Math.max(population.size(), this.x.length * 2);
+            this.x = new float[capacity];
+            this.y = new float[capacity];
+            this.species = new byte[capacity];
+        }
+
+        SpatialHash grid = zone.getSpatialHash();
+        this.columns = grid.getColumns();
+        this.rows = grid.getRows();
+        this.cell_size = grid.getCellSize();
+
+        int cells = this.columns * this.rows;
+        if (this.cell_start.length != cells + 1) {
+            this.cell_start = new int[cells + 1];
+            this.cursor = new int[cells];
+            this.density = new int[Species.values().length * cells];
+        } else {
+            Arrays.fill(this.cell_start, 0);
+            Arrays.fill(this.density, 0);
+        }
+
+        // counting sort by cell: count every cell, then place every organism after the cells before its own
+        for (int slot = 0; slot < population.end(); slot++) {
+            if (!population.isTombstone(slot)) {
+                int cell = grid.getCell(slot);
+                this.cell_start[cell + 1]++;
+                this.density[population.species[slot] * cells + cell]++;
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            this.cell_start[cell + 1] += this.cell_start[cell];
+        }
+        System.arraycopy(this.cell_start, 0, this.cursor, 0, cells);
+
+        for (int slot = 0; slot < population.end(); slot++) {
+            if (!population.isTombstone(slot)) {
+                int entry = this.cursor[grid.getCell(slot)]++;
+                this.x[entry] = population.x[slot];
+                this.y[entry] = population.y[slot];
+                this.species[entry] = population.species[slot];
+            }
+        }
+        this.size = this.cell_start[cells];
+
+        this.co2 = zone.getCo2();
+        this.o2 = zone.geto2();
+        this.light_intensity = zone.getLightIntensity();
+        this.temp = zone.getTemp();
+
+        for (Species species : Species.values()) {
+            this.species_totals[species.ordinal()] = population.size(species);
+        }
+
+        AlleleRegistry alleles = zone.getAlleles();
+        for (GeneType type : GeneType.values()) {
+            int t = type.ordinal();
+            if (this.allele_id[t].length < alleles.size(type)) {
+                int capacity = Math.max(alleles.size(type), this.allele_id[t].length * 2);
+                this.allele_id[t] = new long[capacity];
+                this.allele_value[t] = new double[capacity];
+                this.allele_dominant[t] = new boolean[capacity];
+                this.allele_frequency[t] = new int[capacity];
+            }
+
+            int size = 0;
+            for (int index = 0; index < alleles.size(type); index++) {
+                if (alleles.isLive(type, index) && alleles.refs(type, index) > 0) {
+                    this.allele_id[t][size] = alleles.id(type, index);
+                    this.allele_value[t][size] = alleles.value(type, index);
+                    this.allele_dominant[t][size] = alleles.dominant(type, index);
+                    this.allele_frequency[t][size] = alleles.refs(type, index);
+                    size++;
+                }
+            }
+            this.allele_size[t] = size;
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+public class ZoneStatistics {
+
+    /*
+    Analytics of one zone, kept up to date as organisms are born and die rather than recomputed from the population
+    Every event costs O(1) per gene of the organism, reading any statistic costs O(1) whatever the population size
+    Mutation always happens to offspring before they are born, so births also account for every mutation
+    Allele counts are the reference counts of the zone's AlleleRegistry
+     */
+
+    // Zygosity classes of a chromosome, in the order getAllelicFrequencies() has always named them
+    public static final int HOM_DOM = 0;
+    public static final int HET_DOM = 1;
+    public static final int HOM_REC = 2;
+    public static final String[] ZYGOSITY_NAMES = { "hom_dom", "het_dom", "hom_rec" };
+
+    // Number of organisms of every species, by Species ordinal
+    private final int[] species_totals = new int[Species.values().length];
+    // Number of chromosomes in every zygosity class, by GeneType ordinal then class
+    private final int[][] zygosity = new int[GeneType.values().length][ZYGOSITY_NAMES.length];
+
+    // Running mean and sum of squared deviations (Welford) of the dominant allele value, by GeneType ordinal
+    private final int[] value_count = new int[GeneType.values().length];
+    private final double[] value_mean = new double[GeneType.values().length];
+    private final double[] value_m2 = new double[GeneType.values().length];
+
+    public void born(Organism organism) {
+        /*
+        Counts an organism joining the zone, with its genes
+
+        @param  organism - the organism added to the zone
+         */
+
+        this.species_totals[organism.getSpecies().ordinal()]++;
+
+        GeneType[] genes = organism.getSpecies().getGenes();
+        for (int slot = 0; slot < genes.length; slot++) {
+            int type = genes[slot].ordinal();
+            int dominant = Genotype.dominant(organism.genotype, slot, genes[slot], organism.alleles);
+            double value = organism.alleles.value(genes[slot], dominant);
+
+            this.zygosity[type][zygosity(organism.alleles, genes[slot], organism.genotype, slot)]++;
+
+            // Welford update
+            this.value_count[type]++;
+            double delta = value - this.value_mean[type];
+            this.value_mean[type] += delta / this.value_count[type];
+            this.value_m2[type] += delta * (value - this.value_mean[type]);
+        }
+    }
+
+    public void died(Organism organism) {
+        /*
+        Counts an organism leaving the zone, with its genes
+
+        @param  organism - the organism removed from the zone
+         */
+
+        this.species_totals[organism.getSpecies().ordinal()]--;
+
+        GeneType[] genes = organism.getSpecies().getGenes();
+        for (int slot = 0; slot < genes.length; slot++) {
+            int type = genes[slot].ordinal();
+            int dominant = Genotype.dominant(organism.genotype, slot, genes[slot], organism.alleles);
+            double value = organism.alleles.value(genes[slot], dominant);
+
+            this.zygosity[type][zygosity(organism.alleles, genes[slot], organism.genotype, slot)]--;
+
+            // Welford update in reverse
+            if (--this.value_count[type] == 0) {
+                this.value_mean[type] = 0;
+                this.value_m2[type] = 0;
+            } else {
+                double delta = value - this.value_mean[type];
+                this.value_mean[type] -= delta / this.value_count[type];
+                this.value_m2[type] -= delta * (value - this.value_mean[type]);
+            }
+        }
+    }
+
+    public static int zygosity(AlleleRegistry alleles, GeneType type, long genotype, int slot) {
+        /*
+        Zygosity class of one gene slot of a packed genotype, with the same precedence as the original analytics
+         */
+
+        boolean dominant_a = alleles.dominant(type, Genotype.allele(genotype, slot, 0));
+        boolean dominant_b = alleles.dominant(type, Genotype.allele(genotype, slot, 1));
+
+        if (dominant_a && dominant_b) {
+            return HOM_DOM;
+        } else if (!dominant_a && !dominant_b) {
+            return HOM_REC;
+        } else {
+            return HET_DOM;
+        }
+    }
+
+    public int getSpeciesTotal(Species species) {
+        return this.species_totals[species.ordinal()];
+    }
+
+    public int getZygosityCount(GeneType type, int zygosity) {
+        /*
+        @param  type - gene type
+        @param  zygosity - HOM_DOM, HET_DOM or HOM_REC
+        @return number of organisms whose chromosome for the gene is in that class
+         */
+
+        return this.zygosity[type.ordinal()][zygosity];
+    }
+
+    public int getValueCount(GeneType type) {
+        return this.value_count[type.ordinal()];
+    }
+
+    public double getMeanValue(GeneType type) {
+        /*
+        Mean value of the dominant (expressed) allele of every organism carrying the gene, NaN if none do
+         */
+
+        return this.value_count[type.ordinal()] == 0 ? Double.NaN : this.value_mean[type.ordinal()];
+    }
+
+    public double getValueVariance(GeneType type) {
+        /*
+        Population variance of the dominant allele value of every organism carrying the gene, NaN if none do
+         */
+
+        int count = this.value_count[type.ordinal()];
+        return count == 0 ? Double.NaN : Math.max(0, this.value_m2[type.ordinal()] / count);
+    }
+
+}
@@ -0,0 +1,59 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorFitnessKernel extends FitnessKernel {
+
+    /*
+    FitnessKernel evaluating as many organisms per instruction as the CPU has double lanes, with the JDK Vector API
+    Theta values are gathered straight from the columns by slot, the tail of every run falls back to the scalar kernel
+    Needs jdk.incubator.vector to build and run (javac and java --add-modules jdk.incubator.vector), without it
+    FitnessKernel.get() quietly keeps the scalar kernel
+     */
+
+    private static final VectorSpecies<Double> LANES = DoubleVector.SPECIES_PREFERRED;
+    private static final DoubleVector ONE = DoubleVector.broadcast(LANES, 1);
+
+    @Override
+    public String getName() {
+        return "vector x" + LANES.length();
+    }
+
+    @Override
+    public int survival(double[] theta_0, double[] theta_1, int[] slots, int from, int to,
+                        double abiotic_0, double abiotic_1, double lambda, boolean[] alive) {
+        int count = 0;
+
+        int i = from;
+        for (int bound = from + LANES.loopBound(to - from); i < bound; i += LANES.length()) {
+            VectorMask<Double> survives = logistic(theta_0, slots, i, abiotic_0).compare(VectorOperators.GT, lambda)
+                    .and(logistic(theta_1, slots, i, abiotic_1).compare(VectorOperators.GT, lambda));
+
+            survives.intoArray(alive, i);
+            count += survives.trueCount();
+        }
+
+        return count + super.survival(theta_0, theta_1, slots, i, to, abiotic_0, abiotic_1, lambda, alive);
+    }
+
+    @Override
+    public void fitness(double[] theta, int[] slots, int from, int to, double abiotic_factor, double[] fitness) {
+        int i = from;
+        for (int bound = from + LANES.loopBound(to - from); i < bound; i += LANES.length()) {
+            logistic(theta, slots, i, abiotic_factor).intoArray(fitness, i);
+        }
+
+        super.fitness(theta, slots, i, to, abiotic_factor, fitness);
+    }
+
+    private static DoubleVector logistic(double[] theta, int[] slots, int i, double abiotic_factor) {
+        /*
+        1/(1 + e^(-theta*x)) for the organisms in slots[i, i + lanes)
+         */
+
+        DoubleVector exponent = DoubleVector.fromArray(LANES, theta, 0, slots, i).mul(-abiotic_factor);
+        return ONE.div(exponent.lanewise(VectorOperators.EXP).add(1));
+    }
+
+}